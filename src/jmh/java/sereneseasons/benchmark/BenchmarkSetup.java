@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.Lifecycle;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.damagesource.DamageType;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeGenerationSettings;
+import net.minecraft.world.level.biome.BiomeSpecialEffects;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.biome.MobSpawnSettings;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.dimension.BuiltinDimensionTypes;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraftforge.common.ForgeConfigSpec;
+import sereneseasons.api.season.ISeasonState;
+import sereneseasons.api.season.Season;
+import sereneseasons.api.season.SeasonHelper;
+import sereneseasons.config.FertilityConfig;
+import sereneseasons.config.SeasonsConfig;
+import sereneseasons.config.ServerConfig;
+import sereneseasons.init.ModFertility;
+import sereneseasons.init.ModTags;
+import sereneseasons.season.BiomeSeasonTable;
+import sereneseasons.season.SeasonSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepares just enough of the game for benchmarks to run outside of it. Configs are loaded with their default
+ * values from memory, a small biome registry of stand-in biomes replaces the one normally created by a world,
+ * and the mod's block tags are bound from its bundled data. Season states are supplied by the benchmarks
+ * themselves rather than from a level's saved data.
+ */
+public final class BenchmarkSetup
+{
+    private static final List<TagKey<Block>> BLOCK_TAGS = List.of(ModTags.Blocks.SPRING_CROPS, ModTags.Blocks.SUMMER_CROPS, ModTags.Blocks.AUTUMN_CROPS, ModTags.Blocks.WINTER_CROPS, ModTags.Blocks.GREENHOUSE_GLASS, ModTags.Blocks.UNBREAKABLE_INFERTILE_CROPS);
+
+    private static Map<String, Holder<Biome>> biomes;
+    private static RegistryAccess registryAccess;
+    private static Holder<DimensionType> overworldType;
+    private static volatile ISeasonState seasonState;
+
+    public static synchronized void init()
+    {
+        if (biomes != null)
+            return;
+
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        loadDefaults(ServerConfig.SPEC);
+        loadDefaults(FertilityConfig.SPEC);
+        loadDefaults(SeasonsConfig.SPEC);
+        ServerConfig.onConfigChanged();
+
+        bindBlockTags();
+        ModFertility.populate();
+
+        HolderLookup.Provider vanillaRegistries = VanillaRegistries.createLookup();
+        overworldType = vanillaRegistries.lookupOrThrow(Registries.DIMENSION_TYPE).getOrThrow(BuiltinDimensionTypes.OVERWORLD);
+        biomes = createBiomes(vanillaRegistries);
+
+        seasonState = getSeasonState(Season.SPRING);
+        SeasonHelper.dataProvider = new StandInSeasonProvider();
+    }
+
+    /**
+     * Creates an overworld level without any chunks, using the given kind of stand-in biome throughout.
+     */
+    public static StandInLevel createLevel(String biomeKind)
+    {
+        return new StandInLevel(registryAccess, overworldType, getBiome(biomeKind));
+    }
+
+    /**
+     * Sets the season state reported for every level.
+     */
+    public static void setSeasonState(ISeasonState state)
+    {
+        seasonState = state;
+    }
+
+    /**
+     * Gets the season state at the start of a sub season.
+     */
+    public static ISeasonState getSeasonState(Season.SubSeason subSeason)
+    {
+        return new SeasonSnapshot(subSeason.ordinal() * ServerConfig.dayDuration.get() * ServerConfig.subSeasonDuration.get());
+    }
+
+    /**
+     * Gets the season state at the start of a season.
+     */
+    public static ISeasonState getSeasonState(Season season)
+    {
+        return getSeasonState(Season.SubSeason.VALUES[season.ordinal() * 3]);
+    }
+
+    /**
+     * Gets a stand-in biome. Temperate and cold biomes are affected by seasons as normal, tropical biomes use tropical
+     * seasons, and blacklisted biomes aren't affected by seasons at all.
+     */
+    public static Holder<Biome> getBiome(String kind)
+    {
+        Holder<Biome> biome = biomes.get(kind);
+
+        if (biome == null)
+            throw new IllegalArgumentException("Unknown biome kind " + kind);
+
+        return biome;
+    }
+
+    private static void loadDefaults(ForgeConfigSpec spec)
+    {
+        CommentedConfig config = CommentedConfig.inMemory();
+        spec.correct(config);
+        spec.acceptConfig(config);
+    }
+
+    private static Map<String, Holder<Biome>> createBiomes(HolderLookup.Provider vanillaRegistries)
+    {
+        MappedRegistry<Biome> registry = new MappedRegistry<>(Registries.BIOME, Lifecycle.stable());
+        Map<String, Holder<Biome>> result = new HashMap<>();
+
+        result.put("temperate", register(registry, "temperate", 0.8F));
+        result.put("cold", register(registry, "cold", 0.3F));
+        result.put("tropical", register(registry, "tropical", 0.95F));
+        result.put("blacklisted", register(registry, "blacklisted", 0.8F));
+
+        // Chunk sections are filled with plains until their biomes are set
+        register(registry, Biomes.PLAINS, 0.8F);
+
+        registry.bindTags(Map.of(
+            ModTags.Biomes.TROPICAL_BIOMES, List.of(result.get("tropical")),
+            ModTags.Biomes.BLACKLISTED_BIOMES, List.of(result.get("blacklisted"))
+        ));
+        registry.freeze();
+
+        // Levels need every damage type to create their damage sources
+        MappedRegistry<DamageType> damageTypes = new MappedRegistry<>(Registries.DAMAGE_TYPE, Lifecycle.stable());
+        vanillaRegistries.lookupOrThrow(Registries.DAMAGE_TYPE).listElements().forEach(damageType -> damageTypes.register(damageType.key(), damageType.value(), Lifecycle.stable()));
+        damageTypes.freeze();
+
+        registryAccess = new RegistryAccess.ImmutableRegistryAccess(List.of(registry, damageTypes));
+
+        // Look the biomes up through the season table, as they would be in game
+        BiomeSeasonTable.rebuild(registryAccess, false);
+        return result;
+    }
+
+    private static Holder<Biome> register(MappedRegistry<Biome> registry, String name, float temperature)
+    {
+        return register(registry, ResourceKey.create(Registries.BIOME, new ResourceLocation("sereneseasons", "benchmark_" + name)), temperature);
+    }
+
+    private static Holder<Biome> register(MappedRegistry<Biome> registry, ResourceKey<Biome> key, float temperature)
+    {
+        Biome biome = new Biome.BiomeBuilder()
+            .hasPrecipitation(true)
+            .temperature(temperature)
+            .downfall(0.5F)
+            .specialEffects(new BiomeSpecialEffects.Builder().fogColor(0xC0D8FF).waterColor(0x3F76E4).waterFogColor(0x050533).skyColor(0x78A7FF).build())
+            .mobSpawnSettings(MobSpawnSettings.EMPTY)
+            .generationSettings(BiomeGenerationSettings.EMPTY)
+            .build();
+
+        return registry.register(key, biome, Lifecycle.stable());
+    }
+
+    private static void bindBlockTags()
+    {
+        Map<TagKey<Block>, List<Holder<Block>>> tags = new HashMap<>();
+
+        for (TagKey<Block> tag : BLOCK_TAGS)
+        {
+            tags.put(tag, readBlockTag(tag));
+        }
+
+        BuiltInRegistries.BLOCK.bindTags(tags);
+    }
+
+    /**
+     * Reads the blocks in one of the mod's tags from its bundled data. References to other tags aren't supported.
+     */
+    private static List<Holder<Block>> readBlockTag(TagKey<Block> tag)
+    {
+        ResourceLocation location = tag.location();
+        String resource = "/data/" + location.getNamespace() + "/tags/blocks/" + location.getPath() + ".json";
+        List<Holder<Block>> result = new ArrayList<>();
+
+        try (InputStream stream = BenchmarkSetup.class.getResourceAsStream(resource))
+        {
+            if (stream == null)
+                throw new IOException("Missing block tag " + resource);
+
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8))
+            {
+                JsonArray values = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonArray("values");
+
+                for (JsonElement value : values)
+                {
+                    String name = value.isJsonObject() ? value.getAsJsonObject().get("id").getAsString() : value.getAsString();
+
+                    if (name.startsWith("#"))
+                        continue;
+
+                    BuiltInRegistries.BLOCK.getHolder(ResourceKey.create(Registries.BLOCK, new ResourceLocation(name))).ifPresent(result::add);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        return result;
+    }
+
+    private static class StandInSeasonProvider implements SeasonHelper.ISeasonDataProvider
+    {
+        @Override
+        public ISeasonState getServerSeasonState(Level world)
+        {
+            return seasonState;
+        }
+
+        @Override
+        public ISeasonState getClientSeasonState()
+        {
+            return seasonState;
+        }
+
+        @Override
+        public boolean usesTropicalSeasons(Holder<Biome> biome)
+        {
+            return (BiomeSeasonTable.getFlags(biome) & BiomeSeasonTable.TROPICAL) != 0;
+        }
+
+        @Override
+        public int getBiomeFlags(Holder<Biome> biome)
+        {
+            return BiomeSeasonTable.getFlags(biome);
+        }
+    }
+}
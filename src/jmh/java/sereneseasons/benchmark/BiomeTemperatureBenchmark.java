@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.biome.Biome;
+import org.openjdk.jmh.annotations.*;
+import sereneseasons.api.season.Season;
+import sereneseasons.season.SeasonHooks;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BiomeTemperatureBenchmark
+{
+    @Param
+    public Season.SubSeason subSeason;
+
+    @Param({"temperate", "tropical", "blacklisted"})
+    public String biomeKind;
+
+    private Holder<Biome> biome;
+    private final BlockPos pos = new BlockPos(0, 64, 0);
+
+    @Setup
+    public void setup()
+    {
+        BenchmarkSetup.init();
+        this.biome = BenchmarkSetup.getBiome(this.biomeKind);
+    }
+
+    @Benchmark
+    public float getBiomeTemperatureInSeason()
+    {
+        return SeasonHooks.getBiomeTemperatureInSeason(this.subSeason, this.biome, this.pos);
+    }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sereneseasons.api.season.ISeasonState;
+import sereneseasons.api.season.Season;
+import sereneseasons.init.ModFertility;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the crop fertility check made for every crop growth and bonemeal use, from looking up the crop's seasons
+ * and the biome at its position through to the seasonal verdict. Crops are looked up in the mod's bundled tags.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CropFertilityBenchmark
+{
+    // A summer and autumn crop, and a block which isn't listed in any season
+    @Param({"minecraft:wheat", "minecraft:dandelion"})
+    public String crop;
+
+    @Param({"temperate", "cold", "tropical"})
+    public String biomeKind;
+
+    private Block block;
+    private Level level;
+    private final ISeasonState[] seasonStates = new ISeasonState[Season.values().length];
+    private final BlockPos pos = new BlockPos(8, 64, 8);
+
+    @Setup
+    public void setup()
+    {
+        BenchmarkSetup.init();
+        this.block = BuiltInRegistries.BLOCK.get(new ResourceLocation(this.crop));
+
+        StandInLevel level = BenchmarkSetup.createLevel(this.biomeKind);
+        level.addChunk(0, 0);
+        this.level = level;
+
+        for (Season season : Season.values())
+        {
+            this.seasonStates[season.ordinal()] = BenchmarkSetup.getSeasonState(season);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public void isCropFertile(Blackhole blackhole)
+    {
+        for (ISeasonState seasonState : this.seasonStates)
+        {
+            BenchmarkSetup.setSeasonState(seasonState);
+            blackhole.consume(ModFertility.isCropFertile(this.block, this.level, this.pos));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.eventbus.api.Event;
+import org.openjdk.jmh.annotations.*;
+import sereneseasons.api.season.Season;
+import sereneseasons.handler.season.SeasonalCropGrowthHandler;
+import sereneseasons.util.SeasonMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mod's handling of a wheat crop growth event in a stand-in level, with metrics disabled. The event is
+ * created once up front as Forge would create it for each growth, leaving only the handler's own work. This should
+ * allocate nothing, which can be confirmed by running with the gc profiler, e.g.
+ * ./gradlew jmh -PjmhIncludes=CropGrowthBenchmark -PjmhProfilers=gc, and checking gc.alloc.rate.norm is 0 B/op.
+ * SeasonalCropGrowthHandlerTest checks the same thing as part of the tests.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CropGrowthBenchmark
+{
+    @Param
+    public Season season;
+
+    @Param({"temperate", "cold", "tropical"})
+    public String biomeKind;
+
+    private BlockEvent.CropGrowEvent.Pre event;
+
+    @Setup
+    public void setup()
+    {
+        BenchmarkSetup.init();
+        BenchmarkSetup.setSeasonState(BenchmarkSetup.getSeasonState(this.season));
+        SeasonMetrics.setEnabled(false);
+
+        StandInLevel level = BenchmarkSetup.createLevel(this.biomeKind);
+        level.addChunk(0, 0);
+        this.event = new BlockEvent.CropGrowEvent.Pre(level, new BlockPos(8, 64, 8), Blocks.WHEAT.defaultBlockState());
+    }
+
+    @Benchmark
+    public Event.Result onCropGrowth()
+    {
+        this.event.setResult(Event.Result.DEFAULT);
+        SeasonalCropGrowthHandler.onCropGrowth(this.event);
+        return this.event.getResult();
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import org.openjdk.jmh.annotations.*;
+import sereneseasons.handler.season.RandomUpdateHandler;
+import sereneseasons.season.MeltIndex;
+import sereneseasons.season.MeltScheduler;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one tick of melt rolls through the scheduler's roll loop and the handler's melt roll for each chunk. Chunks
+ * are flat, with the given fraction of their columns covered by snow. The level uses the blacklisted stand-in biome so
+ * rolls stop short of melting anything, leaving the same snow for every iteration.
+ *
+ * The check for whether a chunk is close enough to a player needs a server's chunk map, so it is stood in for by a
+ * fixed set of chunks covering the given fraction of the level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeltSelectionBenchmark
+{
+    private static final int ROLLS = 1;
+    private static final float MELT_CHANCE = 0.25F;
+    private static final int GROUND_Y = 63;
+
+    // The number of chunks along each side of the level
+    @Param({"32", "64"})
+    public int size;
+
+    @Param({"0.0", "0.05", "0.5"})
+    public float snowCoverage;
+
+    @Param({"1.0", "0.25"})
+    public float playerCoverage;
+
+    private StandInLevel level;
+    private MeltScheduler scheduler;
+    private MeltScheduler.RollTarget target;
+
+    @Setup
+    public void setup()
+    {
+        BenchmarkSetup.init();
+
+        RandomSource setupRandom = RandomSource.create(0);
+        Set<LevelChunk> nearPlayers = new ReferenceOpenHashSet<>();
+        this.level = BenchmarkSetup.createLevel("blacklisted");
+        this.scheduler = new MeltScheduler();
+
+        for (int chunkX = 0; chunkX < this.size; chunkX++)
+        {
+            for (int chunkZ = 0; chunkZ < this.size; chunkZ++)
+            {
+                StandInChunk chunk = this.level.addChunk(chunkX, chunkZ);
+                this.buildGround(chunk, setupRandom);
+                MeltIndex.get(chunk);
+                this.scheduler.addChunk(chunk, true);
+
+                if (setupRandom.nextFloat() < this.playerCoverage)
+                {
+                    nearPlayers.add(chunk);
+                }
+            }
+        }
+
+        this.target = new MeltScheduler.RollTarget()
+        {
+            @Override
+            public boolean canRoll(LevelChunk chunk)
+            {
+                return nearPlayers.contains(chunk);
+            }
+
+            @Override
+            public void roll(LevelChunk chunk)
+            {
+                RandomUpdateHandler.meltInChunk(level, chunk, null);
+            }
+        };
+    }
+
+    private void buildGround(StandInChunk chunk, RandomSource random)
+    {
+        LevelChunkSection groundSection = chunk.getSection(chunk.getSectionIndex(GROUND_Y));
+        LevelChunkSection snowSection = chunk.getSection(chunk.getSectionIndex(GROUND_Y + 1));
+
+        for (int x = 0; x < 16; x++)
+        {
+            for (int z = 0; z < 16; z++)
+            {
+                groundSection.setBlockState(x, GROUND_Y & 15, z, Blocks.STONE.defaultBlockState());
+
+                if (random.nextFloat() < this.snowCoverage)
+                {
+                    snowSection.setBlockState(x, (GROUND_Y + 1) & 15, z, Blocks.SNOW.defaultBlockState());
+                }
+            }
+        }
+
+        // The blocks were set directly in their sections, so the heightmaps haven't seen them
+        Heightmap.primeHeightmaps(chunk, EnumSet.of(Heightmap.Types.MOTION_BLOCKING));
+    }
+
+    @Benchmark
+    public int performRolls()
+    {
+        int rollCount = this.scheduler.getRollCount(this.scheduler.getTickingChunkCount(), ROLLS, MELT_CHANCE, 0, this.level.random);
+        return this.scheduler.performRolls(rollCount, this.level.random, this.target);
+    }
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sereneseasons.util.SeasonColorUtil;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the colour functions against the per channel and HSV implementations they replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeasonColorBenchmark
+{
+    private static final int COLOURS = 1024;
+
+    private final int[] under = new int[COLOURS];
+    private final int[] over = new int[COLOURS];
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random(0);
+
+        for (int i = 0; i < COLOURS; i++)
+        {
+            this.under[i] = random.nextInt(0x1000000);
+            this.over[i] = random.nextInt(0x1000000);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOURS)
+    public void overlayBlend(Blackhole blackhole)
+    {
+        for (int i = 0; i < COLOURS; i++)
+        {
+            blackhole.consume(SeasonColorUtil.overlayBlend(this.under[i], this.over[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOURS)
+    public void overlayBlendPerChannel(Blackhole blackhole)
+    {
+        for (int i = 0; i < COLOURS; i++)
+        {
+            int under = this.under[i];
+            int over = this.over[i];
+            int r = SeasonColorUtil.overlayBlendChannel((under >> 16) & 255, (over >> 16) & 255);
+            int g = SeasonColorUtil.overlayBlendChannel((under >> 8) & 255, (over >> 8) & 255);
+            int b = SeasonColorUtil.overlayBlendChannel(under & 255, over & 255);
+
+            blackhole.consume((r & 255) << 16 | (g & 255) << 8 | (b & 255));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOURS)
+    public void saturateColour(Blackhole blackhole)
+    {
+        for (int i = 0; i < COLOURS; i++)
+        {
+            blackhole.consume(SeasonColorUtil.saturateColour(this.under[i], 0.6F));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOURS)
+    public void saturateColourHSV(Blackhole blackhole)
+    {
+        for (int i = 0; i < COLOURS; i++)
+        {
+            blackhole.consume(SeasonColorUtil.saturateColourHSV(this.under[i], 0.6F));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOURS)
+    public void mixColours(Blackhole blackhole)
+    {
+        for (int i = 0; i < COLOURS; i++)
+        {
+            blackhole.consume(SeasonColorUtil.mixColours(this.under[i], this.over[i], 0.75F));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COLOURS)
+    public void mixColoursFloat(Blackhole blackhole)
+    {
+        for (int i = 0; i < COLOURS; i++)
+        {
+            blackhole.consume(mixColoursFloat(this.under[i], this.over[i], 0.75F));
+        }
+    }
+
+    private static int mixColoursFloat(int a, int b, float ratio)
+    {
+        float iRatio = 1.0F - ratio;
+
+        int A = (int)(((a >> 24) & 0xFF) * iRatio + ((b >> 24) & 0xFF) * ratio);
+        int R = (int)(((a >> 16) & 0xFF) * iRatio + ((b >> 16) & 0xFF) * ratio);
+        int G = (int)(((a >> 8) & 0xFF) * iRatio + ((b >> 8) & 0xFF) * ratio);
+        int B = (int)((a & 0xFF) * iRatio + (b & 0xFF) * ratio);
+
+        return A << 24 | R << 16 | G << 8 | B;
+    }
+}
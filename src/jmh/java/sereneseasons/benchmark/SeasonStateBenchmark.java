@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sereneseasons.api.season.ISeasonState;
+import sereneseasons.season.SeasonSnapshot;
+import sereneseasons.season.SeasonTime;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the season from a {@link SeasonTime}, which consults the config on every call, with reading it
+ * from a {@link SeasonSnapshot}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeasonStateBenchmark
+{
+    private SeasonTime seasonTime;
+    private SeasonSnapshot snapshot;
+    private int ticks;
+
+    @Setup
+    public void setup()
+    {
+        BenchmarkSetup.init();
+
+        this.ticks = SeasonTime.ZERO.getSubSeasonDuration() * 7 + 1234;
+        this.seasonTime = new SeasonTime(this.ticks);
+        this.snapshot = new SeasonSnapshot(this.ticks);
+    }
+
+    @Benchmark
+    public void seasonTimeGetters(Blackhole blackhole)
+    {
+        consumeGetters(this.seasonTime, blackhole);
+    }
+
+    @Benchmark
+    public void snapshotGetters(Blackhole blackhole)
+    {
+        consumeGetters(this.snapshot, blackhole);
+    }
+
+    @Benchmark
+    public SeasonSnapshot createSnapshot()
+    {
+        return new SeasonSnapshot(this.ticks);
+    }
+
+    private static void consumeGetters(ISeasonState state, Blackhole blackhole)
+    {
+        blackhole.consume(state.getSubSeason());
+        blackhole.consume(state.getSeason());
+        blackhole.consume(state.getTropicalSeason());
+        blackhole.consume(state.getDay());
+    }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+import sereneseasons.season.GreenhouseIndex;
+import sereneseasons.season.ISeasonalChunk;
+import sereneseasons.season.MeltIndex;
+
+/**
+ * A chunk holding the indexes which the mod's mixin adds to level chunks in game, as mixins aren't applied outside of it.
+ */
+public class StandInChunk extends LevelChunk implements ISeasonalChunk
+{
+    private MeltIndex meltIndex;
+    private GreenhouseIndex greenhouseIndex;
+
+    public StandInChunk(Level level, ChunkPos pos)
+    {
+        super(level, pos);
+    }
+
+    @Override
+    public MeltIndex getMeltIndex()
+    {
+        return this.meltIndex;
+    }
+
+    @Override
+    public void setMeltIndex(MeltIndex index)
+    {
+        this.meltIndex = index;
+    }
+
+    @Override
+    public GreenhouseIndex getGreenhouseIndex()
+    {
+        return this.greenhouseIndex;
+    }
+
+    @Override
+    public void setGreenhouseIndex(GreenhouseIndex index)
+    {
+        this.greenhouseIndex = index;
+    }
+}
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.benchmark;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.Holder;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.sounds.SoundEvent;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.util.profiling.InactiveProfiler;
+import net.minecraft.world.Difficulty;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.flag.FeatureFlagSet;
+import net.minecraft.world.flag.FeatureFlags;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkSource;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.EmptyLevelChunk;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.entity.LevelEntityGetter;
+import net.minecraft.world.level.gameevent.GameEvent;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+import net.minecraft.world.level.material.Fluid;
+import net.minecraft.world.level.saveddata.maps.MapItemSavedData;
+import net.minecraft.world.phys.Vec3;
+import net.minecraft.world.scores.Scoreboard;
+import net.minecraft.world.ticks.BlackholeTickAccess;
+import net.minecraft.world.ticks.LevelTickAccess;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A server side level holding only the chunks added to it, so the mod's handlers can be driven outside of the game.
+ * Chunks which haven't been added read as empty, and there is no lighting, entities or scheduled ticking.
+ */
+public class StandInLevel extends Level
+{
+    private final Holder<Biome> biome;
+    private final StandInChunkSource chunkSource;
+
+    public StandInLevel(RegistryAccess registryAccess, Holder<DimensionType> dimensionType, Holder<Biome> biome)
+    {
+        super(new ClientLevel.ClientLevelData(Difficulty.NORMAL, false, false), Level.OVERWORLD, registryAccess, dimensionType, () -> InactiveProfiler.INSTANCE, false, false, 0L, 1000000);
+        this.biome = biome;
+        this.chunkSource = new StandInChunkSource(this);
+    }
+
+    /**
+     * Adds an empty chunk with the level's biome throughout.
+     */
+    public StandInChunk addChunk(int x, int z)
+    {
+        StandInChunk chunk = new StandInChunk(this, new ChunkPos(x, z));
+        chunk.fillBiomesFromNoise((quartX, quartY, quartZ, sampler) -> this.biome, null);
+        this.chunkSource.chunks.put(ChunkPos.asLong(x, z), chunk);
+        return chunk;
+    }
+
+    @Override
+    public ChunkSource getChunkSource()
+    {
+        return this.chunkSource;
+    }
+
+    @Override
+    public boolean hasChunk(int x, int z)
+    {
+        return this.chunkSource.chunks.containsKey(ChunkPos.asLong(x, z));
+    }
+
+    @Override
+    public Holder<Biome> getUncachedNoiseBiome(int x, int y, int z)
+    {
+        return this.biome;
+    }
+
+    @Override
+    public float getShade(Direction direction, boolean shade)
+    {
+        return 1.0F;
+    }
+
+    @Override
+    public FeatureFlagSet enabledFeatures()
+    {
+        return FeatureFlags.DEFAULT_FLAGS;
+    }
+
+    @Override
+    public LevelTickAccess<Block> getBlockTicks()
+    {
+        return BlackholeTickAccess.emptyLevelList();
+    }
+
+    @Override
+    public LevelTickAccess<Fluid> getFluidTicks()
+    {
+        return BlackholeTickAccess.emptyLevelList();
+    }
+
+    @Override
+    public List<? extends Player> players()
+    {
+        return List.of();
+    }
+
+    @Nullable
+    @Override
+    public Entity getEntity(int id)
+    {
+        return null;
+    }
+
+    @Override
+    protected LevelEntityGetter<Entity> getEntities()
+    {
+        throw new UnsupportedOperationException("Stand-in levels have no entities");
+    }
+
+    @Nullable
+    @Override
+    public MapItemSavedData getMapData(String name)
+    {
+        return null;
+    }
+
+    @Override
+    public void setMapData(String name, MapItemSavedData data) {}
+
+    @Override
+    public int getFreeMapId()
+    {
+        return 0;
+    }
+
+    @Override
+    public Scoreboard getScoreboard()
+    {
+        throw new UnsupportedOperationException("Stand-in levels have no scoreboard");
+    }
+
+    @Override
+    public RecipeManager getRecipeManager()
+    {
+        throw new UnsupportedOperationException("Stand-in levels have no recipes");
+    }
+
+    @Override
+    public String gatherChunkSourceStats()
+    {
+        return this.chunkSource.gatherStats();
+    }
+
+    @Override
+    public void sendBlockUpdated(BlockPos pos, BlockState oldState, BlockState newState, int flags) {}
+
+    @Override
+    public void destroyBlockProgress(int breakerId, BlockPos pos, int progress) {}
+
+    @Override
+    public void levelEvent(@Nullable Player player, int type, BlockPos pos, int data) {}
+
+    @Override
+    public void gameEvent(GameEvent event, Vec3 pos, GameEvent.Context context) {}
+
+    @Override
+    public void playSeededSound(@Nullable Player player, double x, double y, double z, Holder<SoundEvent> sound, SoundSource source, float volume, float pitch, long seed) {}
+
+    @Override
+    public void playSeededSound(@Nullable Player player, Entity entity, Holder<SoundEvent> sound, SoundSource source, float volume, float pitch, long seed) {}
+
+    private static class StandInChunkSource extends ChunkSource
+    {
+        private final Long2ObjectOpenHashMap<LevelChunk> chunks = new Long2ObjectOpenHashMap<>();
+        private final StandInLevel level;
+        private final LevelChunk emptyChunk;
+
+        // Neither block nor sky light is tracked, so light updates do nothing
+        private final LevelLightEngine lightEngine;
+
+        private StandInChunkSource(StandInLevel level)
+        {
+            this.level = level;
+            this.emptyChunk = new EmptyLevelChunk(level, ChunkPos.ZERO, level.biome);
+            this.lightEngine = new LevelLightEngine(this, false, false);
+        }
+
+        @Nullable
+        @Override
+        public ChunkAccess getChunk(int x, int z, ChunkStatus status, boolean load)
+        {
+            LevelChunk chunk = this.chunks.get(ChunkPos.asLong(x, z));
+            return chunk == null && load ? this.emptyChunk : chunk;
+        }
+
+        @Override
+        public void tick(BooleanSupplier hasTimeLeft, boolean tickChunks) {}
+
+        @Override
+        public String gatherStats()
+        {
+            return "StandInChunkSource " + this.chunks.size();
+        }
+
+        @Override
+        public int getLoadedChunksCount()
+        {
+            return this.chunks.size();
+        }
+
+        @Override
+        public LevelLightEngine getLightEngine()
+        {
+            return this.lightEngine;
+        }
+
+        @Override
+        public StandInLevel getLevel()
+        {
+            return this.level;
+        }
+    }
+}
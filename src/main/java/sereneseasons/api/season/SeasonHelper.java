@@ -10,6 +10,11 @@ import net.minecraft.world.level.biome.Biome;
 
 public class SeasonHelper 
 {
+    public static final int BIOME_BLACKLISTED = 1;
+    public static final int BIOME_TROPICAL = 1 << 1;
+    public static final int BIOME_INFERTILE = 1 << 2;
+    public static final int BIOME_LESSER_COLOR_CHANGE = 1 << 3;
+
     public static ISeasonDataProvider dataProvider;
 
     /** 
@@ -39,7 +44,18 @@ public class SeasonHelper
      */
     public static boolean usesTropicalSeasons(Holder<Biome> biome)
     {
-        return dataProvider.usesTropicalSeasons(biome);
+        return (getBiomeFlags(biome) & BIOME_TROPICAL) != 0;
+    }
+
+    /**
+     * Gets the season classification of a biome as a set of flags. This is computed once
+     * whenever tags are reloaded, so is considerably cheaper than checking the biome tags.
+     * @param biome the biome to check.
+     * @return a combination of the BIOME_ flags in this class.
+     */
+    public static int getBiomeFlags(Holder<Biome> biome)
+    {
+        return dataProvider.getBiomeFlags(biome);
     }
 
     public interface ISeasonDataProvider
@@ -47,5 +63,13 @@ public class SeasonHelper
         ISeasonState getServerSeasonState(Level world);
         ISeasonState getClientSeasonState();
         boolean usesTropicalSeasons(Holder<Biome> key);
+
+        /**
+         * Providers which don't classify biomes themselves only report whether they use tropical seasons.
+         */
+        default int getBiomeFlags(Holder<Biome> biome)
+        {
+            return this.usesTropicalSeasons(biome) ? BIOME_TROPICAL : 0;
+        }
     }
 }
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.command;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.level.storage.LevelResource;
+import sereneseasons.core.SereneSeasons;
+import sereneseasons.util.SeasonMetrics;
+import sereneseasons.util.config.JsonUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+public class CommandProfile
+{
+    private static final int MAX_SAMPLE_SECONDS = 3600;
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+
+    static ArgumentBuilder<CommandSourceStack, ?> register()
+    {
+        return Commands.literal("profile")
+            .executes(ctx -> report(ctx.getSource()))
+            .then(Commands.literal("start").executes(ctx -> setEnabled(ctx.getSource(), true)))
+            .then(Commands.literal("stop").executes(ctx -> setEnabled(ctx.getSource(), false)))
+            .then(Commands.literal("reset").executes(ctx -> reset(ctx.getSource())))
+            .then(Commands.literal("sample")
+                .then(Commands.argument("seconds", IntegerArgumentType.integer(1, MAX_SAMPLE_SECONDS))
+                .executes(ctx -> sample(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "seconds")))));
+    }
+
+    private static int report(CommandSourceStack cs)
+    {
+        if (!SeasonMetrics.isEnabled())
+        {
+            cs.sendFailure(Component.translatable("commands.sereneseasons.profile.disabled"));
+            return 0;
+        }
+
+        cs.sendSuccess(() -> Component.translatable("commands.sereneseasons.profile.header"), false);
+
+        for (String line : SeasonMetrics.describe())
+        {
+            cs.sendSuccess(() -> Component.literal(line), false);
+        }
+
+        return 1;
+    }
+
+    private static int setEnabled(CommandSourceStack cs, boolean enabled)
+    {
+        SeasonMetrics.setEnabled(enabled);
+        cs.sendSuccess(() -> Component.translatable(enabled ? "commands.sereneseasons.profile.start" : "commands.sereneseasons.profile.stop"), true);
+        return 1;
+    }
+
+    private static int reset(CommandSourceStack cs)
+    {
+        SeasonMetrics.reset();
+        cs.sendSuccess(() -> Component.translatable("commands.sereneseasons.profile.reset"), true);
+        return 1;
+    }
+
+    private static int sample(CommandSourceStack cs, int seconds)
+    {
+        if (SeasonMetrics.isSampling())
+        {
+            cs.sendFailure(Component.translatable("commands.sereneseasons.profile.sample.running"));
+            return 0;
+        }
+
+        SeasonMetrics.startSample(seconds * 20, sample -> reportSample(cs, sample));
+        cs.sendSuccess(() -> Component.translatable("commands.sereneseasons.profile.sample.start", seconds), true);
+        return 1;
+    }
+
+    private static void reportSample(CommandSourceStack cs, SeasonMetrics.Sample sample)
+    {
+        cs.sendSuccess(() -> Component.translatable("commands.sereneseasons.profile.sample.header", String.format(Locale.ROOT, "%.1f", sample.getSeconds())), false);
+
+        for (String line : sample.describe())
+        {
+            cs.sendSuccess(() -> Component.literal(line), false);
+        }
+
+        Path outputPath = cs.getServer().getWorldPath(LevelResource.ROOT).resolve(SereneSeasons.MOD_ID).resolve("profile-" + LocalDateTime.now().format(FILE_DATE_FORMAT) + ".json").normalize();
+
+        try
+        {
+            Files.createDirectories(outputPath.getParent());
+            Files.writeString(outputPath, JsonUtil.SERIALIZER.toJson(sample.toJson()), StandardCharsets.UTF_8);
+            cs.sendSuccess(() -> Component.translatable("commands.sereneseasons.profile.sample.saved", outputPath.toString()), false);
+        }
+        catch (IOException e)
+        {
+            SereneSeasons.LOGGER.error("Failed to write profile to " + outputPath, e);
+            cs.sendFailure(Component.translatable("commands.sereneseasons.profile.sample.fail", outputPath.toString()));
+        }
+    }
+}
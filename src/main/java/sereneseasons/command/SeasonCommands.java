@@ -17,6 +17,7 @@ public class SeasonCommands
                         .requires(cs -> cs.hasPermission(2))
                         .then(CommandSetSeason.register())
                         .then(CommandGetSeason.register())
+                        .then(CommandProfile.register())
         );
     }
 }
@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.config;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+
+public class ClientConfig
+{
+    public static final ForgeConfigSpec.Builder BUILDER = new ForgeConfigSpec.Builder();
+    public static final ForgeConfigSpec SPEC;
+
+    // Color settings
+    public static ForgeConfigSpec.BooleanValue smoothColorTransitions;
+    public static ForgeConfigSpec.IntValue colorTransitionSteps;
+    public static ForgeConfigSpec.IntValue sectionRetintsPerFrame;
+
+    static
+    {
+        BUILDER.push("color_settings");
+        smoothColorTransitions = BUILDER.comment("Gradually blend grass and foliage colors towards the next sub season, rather than changing them all at once.\nChunks are re-rendered a few at a time, nearest first, to avoid stutters when the colors change.").define("smooth_color_transitions", false);
+        colorTransitionSteps = BUILDER.comment("The number of color changes made over the course of each sub season when smooth color transitions are enabled").defineInRange("color_transition_steps", 8, 1, 64);
+        sectionRetintsPerFrame = BUILDER.comment("The maximum number of chunk sections re-rendered each frame when the colors change with smooth color transitions enabled").defineInRange("section_retints_per_frame", 128, 1, 4096);
+        BUILDER.pop();
+
+        SPEC = BUILDER.build();
+    }
+}
@@ -9,16 +9,20 @@ import com.electronwill.nightconfig.core.InMemoryFormat;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.Level;
 import net.minecraftforge.common.ForgeConfigSpec;
 import sereneseasons.api.season.Season.SubSeason;
+import sereneseasons.util.SeasonMetrics;
 
 import javax.annotation.Nullable;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -32,6 +36,7 @@ public class ServerConfig
     public static ForgeConfigSpec.IntValue subSeasonDuration;
     public static ForgeConfigSpec.IntValue startingSubSeason;
     public static ForgeConfigSpec.BooleanValue progressSeasonWhileOffline;
+    public static ForgeConfigSpec.IntValue seasonSyncHeartbeatInterval;
 
     // Aesthetic settings
     public static ForgeConfigSpec.BooleanValue changeGrassColor;
@@ -44,6 +49,14 @@ public class ServerConfig
 
     // Snow melting settings
     private static ForgeConfigSpec.ConfigValue<List<Config>> meltChanceEntries;
+    public static ForgeConfigSpec.IntValue maxMeltRollsPerTick;
+    public static ForgeConfigSpec.IntValue catchUpMeltChunksPerTick;
+    public static ForgeConfigSpec.BooleanValue parallelMeltSelection;
+    public static ForgeConfigSpec.IntValue meltWorkerThreads;
+
+    // Debug settings
+    public static ForgeConfigSpec.BooleanValue enableMetrics;
+    public static ForgeConfigSpec.IntValue metricsLogInterval;
     private static List<Config> defaultMeltChances = Lists.newArrayList(
             new MeltChanceInfo(SubSeason.EARLY_WINTER, 0.0F, 0),
             new MeltChanceInfo(SubSeason.MID_WINTER, 0.0F, 0),
@@ -117,6 +130,7 @@ public class ServerConfig
         subSeasonDuration = BUILDER.comment("The duration of a sub season in days").defineInRange("sub_season_duration", 8, 1, Integer.MAX_VALUE);
         startingSubSeason = BUILDER.comment("The starting sub season for new worlds.\n0 = Random, 1 - 3 = Early/Mid/Late Spring\n4 - 6 = Early/Mid/Late Summer\n7 - 9 = Early/Mid/Late Autumn\n10 - 12 = Early/Mid/Late Winter").defineInRange("starting_sub_season", 1, 0, 12);
         progressSeasonWhileOffline = BUILDER.comment("If the season should progress on a server with no players online").define("progress_season_while_offline", true);
+        seasonSyncHeartbeatInterval = BUILDER.comment("How often in ticks the season is synced to players in addition to when it changes.\nPlayers keep the season ticking between syncs, so this only corrects any drift.\n0 = Disabled").defineInRange("season_sync_heartbeat_interval", 1200, 0, Integer.MAX_VALUE);
         BUILDER.pop();
 
         BUILDER.push("aesthetic_settings");
@@ -135,22 +149,90 @@ public class ServerConfig
                 melt_percent is the 0-1 percentage chance a snow or ice block will melt when chosen. (e.g. 100.0 = 100%, 50.0 = 50%)
                 rolls is the number of blocks randomly picked in each chunk, each tick. (High number rolls is not recommended on servers)
                 rolls should be 0 if blocks should not melt in that season.""").define("season_melt_chances", defaultMeltChances, MELT_INFO_VALIDATOR);
+        maxMeltRollsPerTick = BUILDER.comment("The maximum number of successful melt rolls performed in each dimension per tick.\nRolls over this limit are deferred to the next tick. 0 = Unlimited").defineInRange("max_melt_rolls_per_tick", 0, 0, Integer.MAX_VALUE);
+        catchUpMeltChunksPerTick = BUILDER.comment("The maximum number of chunks in each dimension per tick which have melting applied for the time they spent unloaded.\n0 = Disabled").defineInRange("catch_up_melt_chunks_per_tick", 4, 0, Integer.MAX_VALUE);
+        parallelMeltSelection = BUILDER.comment("If the biome and temperature checks for melting should be performed on worker threads.\nMelting itself is still applied on the server thread.").define("parallel_melt_selection", false);
+        meltWorkerThreads = BUILDER.comment("The number of worker threads used when parallel melt selection is enabled. The game must be restarted for this to apply.\n0 = Half of the available processors").defineInRange("melt_worker_threads", 0, 0, 64);
+        BUILDER.pop();
+
+        BUILDER.push("debug_settings");
+        enableMetrics = BUILDER.comment("Count and time calls to the mod's hooks, melting and crop checks.\nThis can also be toggled with /season profile start and /season profile stop.").define("enable_metrics", false);
+        metricsLogInterval = BUILDER.comment("How often in seconds to log metrics while they are enabled.\n0 = Disabled").defineInRange("metrics_log_interval", 300, 0, Integer.MAX_VALUE);
         BUILDER.pop();
 
         SPEC = BUILDER.build();
     }
 
+    // Resource keys are interned, so they can be compared by identity. This is read from the render threads.
+    private static volatile Set<ResourceKey<Level>> whitelistedDimensionKeys;
+
+    // Incremented whenever the config is loaded or reloaded
+    private static volatile int generation;
+
+    // The value of enableMetrics last applied to the metrics
+    private static boolean metricsSettingApplied;
+    private static boolean appliedEnableMetrics;
+
     public static boolean isDimensionWhitelisted(ResourceKey<Level> dimension)
     {
+        Set<ResourceKey<Level>> keys = whitelistedDimensionKeys;
+
+        if (keys == null)
+        {
+            keys = compileWhitelistedDimensions();
+        }
+
+        return keys.contains(dimension);
+    }
+
+    /**
+     * Called when the config is loaded as a server starts, applying every value regardless of what was set before.
+     */
+    public static void onConfigLoaded()
+    {
+        metricsSettingApplied = false;
+        onConfigChanged();
+    }
+
+    /**
+     * Rebuilds values derived from the config. Called whenever the config is loaded or reloaded.
+     */
+    public static void onConfigChanged()
+    {
+        compileWhitelistedDimensions();
+
+        // Metrics may have been toggled by command since, so reloads only apply the setting if it has changed
+        boolean metrics = enableMetrics.get();
+
+        if (!metricsSettingApplied || metrics != appliedEnableMetrics)
+        {
+            SeasonMetrics.setEnabled(metrics);
+            appliedEnableMetrics = metrics;
+            metricsSettingApplied = true;
+        }
+
+        generation++;
+    }
+
+    /**
+     * Gets a counter which changes whenever the config does, so values derived from it know when to refresh.
+     */
+    public static int getGeneration()
+    {
+        return generation;
+    }
+
+    private static Set<ResourceKey<Level>> compileWhitelistedDimensions()
+    {
+        Set<ResourceKey<Level>> keys = new ReferenceOpenHashSet<>();
+
         for (String whitelistedDimension : whitelistedDimensions.get())
         {
-            if (dimension.location().toString().equals(whitelistedDimension))
-            {
-                return true;
-            }
+            keys.add(ResourceKey.create(Registries.DIMENSION, new ResourceLocation(whitelistedDimension)));
         }
 
-        return false;
+        whitelistedDimensionKeys = keys;
+        return keys;
     }
 
     private static Config meltChanceInfoToConfig(MeltChanceInfo meltChanceInfo)
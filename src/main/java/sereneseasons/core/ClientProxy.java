@@ -16,7 +16,6 @@ import net.minecraftforge.api.distmarker.OnlyIn;
 import sereneseasons.api.SSItems;
 import sereneseasons.api.season.SeasonHelper;
 import sereneseasons.config.ServerConfig;
-import sereneseasons.init.ModTags;
 import sereneseasons.season.SeasonTime;
 
 public class ClientProxy extends CommonProxy
@@ -83,7 +82,7 @@ public class ClientProxy extends CommonProxy
                         {
                             Holder<Biome> biome = level.getBiome(holder.blockPosition());
 
-                            if (biome.is(ModTags.Biomes.TROPICAL_BIOMES))
+                            if (SeasonHelper.usesTropicalSeasons(biome))
                             {
                                 type = 1.0F;
                             }
@@ -6,6 +6,7 @@ import net.minecraftforge.event.network.CustomPayloadEvent;
 import net.minecraftforge.network.ChannelBuilder;
 import net.minecraftforge.network.SimpleChannel;
 import sereneseasons.core.SereneSeasons;
+import sereneseasons.network.message.MessageSyncDimensionIds;
 import sereneseasons.network.message.MessageSyncSeasonCycle;
 
 import java.util.function.BiConsumer;
@@ -14,7 +15,7 @@ import java.util.function.Supplier;
 
 public class PacketHandler
 {
-    public static final int PROTOCOL_VERSION = 0;
+    public static final int PROTOCOL_VERSION = 1;
     public static final SimpleChannel HANDLER = ChannelBuilder
             .named(new ResourceLocation(SereneSeasons.MOD_ID, "main_channel"))
             .networkProtocolVersion(PROTOCOL_VERSION)
@@ -23,6 +24,7 @@ public class PacketHandler
 
     public static void init()
     {
+        registerMessage(MessageSyncDimensionIds.class, MessageSyncDimensionIds::encode, MessageSyncDimensionIds::decode, MessageSyncDimensionIds.Handler::handle);
         registerMessage(MessageSyncSeasonCycle.class, MessageSyncSeasonCycle::encode, MessageSyncSeasonCycle::decode, MessageSyncSeasonCycle.Handler::handle);
     }
 
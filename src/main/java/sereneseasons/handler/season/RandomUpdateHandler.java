@@ -4,13 +4,16 @@
  ******************************************************************************/
 package sereneseasons.handler.season;
 
-import com.google.common.collect.Lists;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ChunkHolder;
+import net.minecraft.server.level.ChunkLevel;
 import net.minecraft.server.level.ChunkMap;
 import net.minecraft.server.level.DistanceManager;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
@@ -20,19 +23,33 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.storage.ServerLevelData;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.level.ChunkTicketLevelUpdatedEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.common.Mod;
+import sereneseasons.api.season.ISeasonState;
 import sereneseasons.api.season.Season;
 import sereneseasons.api.season.SeasonHelper;
 import sereneseasons.config.SeasonsConfig;
 import sereneseasons.config.ServerConfig;
 import sereneseasons.config.ServerConfig.MeltChanceInfo;
-import sereneseasons.init.ModTags;
+import sereneseasons.season.BiomeSeasonTable;
+import sereneseasons.season.ChunkSeasonData;
+import sereneseasons.season.MeltBatch;
+import sereneseasons.season.MeltIndex;
+import sereneseasons.season.MeltScheduler;
 import sereneseasons.season.SeasonHooks;
+import sereneseasons.util.SeasonMetrics;
 
-import java.util.Collections;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 @Mod.EventBusSubscriber
@@ -75,91 +92,485 @@ public class RandomUpdateHandler
 		}
 	}
 
-	private static void meltInChunk(ChunkMap chunkManager, LevelChunk chunkIn, float meltChance)
+	private static final HashMap<ResourceKey<Level>, MeltScheduler> meltSchedulers = new HashMap<>();
+
+	// The number of ticks over which the melt stamps of all loaded chunks are refreshed
+	private static final int STAMP_INTERVAL = 100;
+
+	private static final List<LevelChunk> stampSlice = new ArrayList<>();
+	private static final float[] meltExposure = new float[Season.SubSeason.VALUES.length];
+	private static final long[] subSeasonTicks = new long[Season.SubSeason.VALUES.length];
+
+	// Accumulates the melting done in the level currently ticking while a flight recording is capturing it
+	@Nullable
+	private static SeasonFlightEvents.MeltTick meltEvent;
+
+	private static MeltScheduler getMeltScheduler(ServerLevel level)
 	{
-		ServerLevel world = chunkManager.level;
-		ChunkPos chunkpos = chunkIn.getPos();
-		int i = chunkpos.getMinBlockX();
-		int j = chunkpos.getMinBlockZ();
+		return meltSchedulers.computeIfAbsent(level.dimension(), key -> new MeltScheduler());
+	}
 
-		if (meltChance > 0 && world.random.nextFloat() < meltChance)
+	@SubscribeEvent
+	public static void onChunkLoad(ChunkEvent.Load event)
+	{
+		if (event.getLevel() instanceof ServerLevel level && event.getChunk() instanceof LevelChunk chunk)
 		{
-			BlockPos topAirPos = world.getHeightmapPos(Heightmap.Types.MOTION_BLOCKING, world.getBlockRandomPos(i, 0, j, 15));
-			BlockPos topGroundPos = topAirPos.below();
-			BlockState aboveGroundState = world.getBlockState(topAirPos);
-			BlockState groundState = world.getBlockState(topGroundPos);
-			Holder<Biome> biome = world.getBiome(topAirPos);
+			MeltScheduler scheduler = getMeltScheduler(level);
+			ChunkHolder holder = level.getChunkSource().chunkMap.getVisibleChunkIfPresent(chunk.getPos().toLong());
+			scheduler.addChunk(chunk, holder != null && ChunkLevel.isBlockTicking(holder.getTicketLevel()));
+
+			ChunkSeasonData data = ChunkSeasonData.get(chunk);
 
-			if (biome.is(ModTags.Biomes.BLACKLISTED_BIOMES))
+			if (data == null)
 				return;
 
-			if (SeasonHooks.getBiomeTemperature(world, biome, topGroundPos) >= 0.15F)
+			long elapsedTicks = SeasonHandler.getSeasonSavedData(level).elapsedTicks;
+
+			// Chunks without a valid stamp, such as newly generated ones, have nothing to catch up on
+			if (data.getLastMeltTicks() == ChunkSeasonData.UNKNOWN || data.getLastMeltTicks() > elapsedTicks)
 			{
-				if(aboveGroundState.getBlock() == Blocks.SNOW) world.setBlockAndUpdate(topAirPos, Blocks.AIR.defaultBlockState());
-				else if(groundState.getBlock() == Blocks.ICE) ((IceBlock) Blocks.ICE).melt(groundState, world, topGroundPos);
+				data.setLastMeltTicks(elapsedTicks);
 			}
+			else if (data.getLastMeltTicks() != elapsedTicks)
+			{
+				queueCatchUp(scheduler, chunk, data, elapsedTicks);
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public static void onChunkUnload(ChunkEvent.Unload event)
+	{
+		if (event.getLevel() instanceof ServerLevel level && event.getChunk() instanceof LevelChunk chunk)
+		{
+			markStampUnsaved(chunk);
+			getMeltScheduler(level).removeChunk(chunk);
+		}
+	}
+
+	@SubscribeEvent
+	public static void onChunkTicketLevelUpdated(ChunkTicketLevelUpdatedEvent event)
+	{
+		boolean ticking = ChunkLevel.isBlockTicking(event.getNewTicketLevel());
+
+		if (ChunkLevel.isBlockTicking(event.getOldTicketLevel()) != ticking)
+		{
+			getMeltScheduler(event.getLevel()).setTicking(event.getChunkPos(), ticking);
+		}
+	}
+
+	@SubscribeEvent
+	public static void onAttachChunkCapabilities(AttachCapabilitiesEvent<LevelChunk> event)
+	{
+		if (!event.getObject().getLevel().isClientSide())
+		{
+			event.addCapability(ChunkSeasonData.ID, new ChunkSeasonData.Provider());
+		}
+	}
+
+	private static void markStampUnsaved(LevelChunk chunk)
+	{
+		ChunkSeasonData data = ChunkSeasonData.get(chunk);
+
+		// Refreshing the stamp alone doesn't mark the chunk as needing to be saved. Stamps of loaded chunks are only
+		// written when the chunk is saved for another reason, as they're kept current while the chunk is loaded anyway.
+		if (data != null && data.isDirty())
+		{
+			chunk.setUnsaved(true);
+		}
+	}
+
+	@SubscribeEvent
+	public static void onServerStopped(ServerStoppedEvent event)
+	{
+		MeltBatch.shutdownExecutor();
+	}
+
+	@SubscribeEvent
+	public static void onWorldUnloaded(LevelEvent.Unload event)
+	{
+		if (event.getLevel() instanceof ServerLevel level)
+		{
+			meltSchedulers.remove(level.dimension());
+		}
+	}
+
+	private static boolean canMeltInChunk(ServerLevel level, ChunkMap chunkMap, DistanceManager distanceManager, LevelChunk chunk)
+	{
+		// Replicate the behaviour of ServerChunkCache
+		long chunkPos = chunk.getPos().toLong();
+		ChunkHolder holder = chunkMap.getVisibleChunkIfPresent(chunkPos);
+
+		if (holder == null || holder.getTickingChunk() != chunk)
+			return false;
+
+		return (chunkMap.anyPlayerCloseEnoughForSpawning(chunk.getPos()) || distanceManager.shouldForceTicks(chunkPos)) && level.shouldTickBlocksAt(chunkPos);
+	}
+
+	/**
+	 * Makes a melt roll in a random column of a chunk, melting any snow or ice there if it's warm enough. When a batch
+	 * is given, the column is instead added to it to be checked off the main thread.
+	 */
+	public static void meltInChunk(Level world, LevelChunk chunkIn, @Nullable MeltBatch batch)
+	{
+		MeltIndex meltIndex = MeltIndex.get(chunkIn);
+
+		// Skip chunks with nothing to melt
+		if (meltIndex.isEmpty())
+			return;
+
+		// Columns are still picked uniformly so the melt rate is unaffected, but those without snow or ice are skipped cheaply
+		int column = world.random.nextInt(256);
+
+		if (!meltIndex.mayMelt(column))
+			return;
+
+		ChunkPos chunkpos = chunkIn.getPos();
+		BlockPos topAirPos = world.getHeightmapPos(Heightmap.Types.MOTION_BLOCKING, new BlockPos(chunkpos.getMinBlockX() + MeltIndex.getColumnX(column), 0, chunkpos.getMinBlockZ() + MeltIndex.getColumnZ(column)));
+		BlockPos topGroundPos = topAirPos.below();
+		BlockState aboveGroundState = world.getBlockState(topAirPos);
+		BlockState groundState = world.getBlockState(topGroundPos);
+
+		if (aboveGroundState.getBlock() != Blocks.SNOW && groundState.getBlock() != Blocks.ICE)
+		{
+			meltIndex.clear(column);
+			return;
+		}
+
+		// Leave the biome and temperature checks to the melt workers
+		if (batch != null)
+		{
+			batch.add(chunkIn, topAirPos, aboveGroundState.getBlock() == Blocks.SNOW);
+			return;
+		}
+
+		Holder<Biome> biome = world.getBiome(topAirPos);
+
+		if ((BiomeSeasonTable.getFlags(biome) & BiomeSeasonTable.BLACKLISTED) != 0)
+			return;
+
+		if (SeasonHooks.getBiomeTemperature(world, biome, topGroundPos) >= 0.15F)
+		{
+			if(aboveGroundState.getBlock() == Blocks.SNOW) world.setBlockAndUpdate(topAirPos, Blocks.AIR.defaultBlockState());
+			else if(groundState.getBlock() == Blocks.ICE) ((IceBlock) Blocks.ICE).melt(groundState, world, topGroundPos);
+
+			SeasonMetrics.count(SeasonMetrics.Counter.BLOCKS_MELTED, world, 1);
+			if (meltEvent != null) meltEvent.blocksMelted++;
 		}
 	}
 
 
+	private static void queueCatchUp(MeltScheduler scheduler, LevelChunk chunk, ChunkSeasonData data, long elapsedTicks)
+	{
+		if (ServerConfig.catchUpMeltChunksPerTick.get() <= 0)
+		{
+			data.setLastMeltTicks(elapsedTicks);
+			return;
+		}
+
+		if (!data.isCatchUpPending())
+		{
+			data.setCatchUpPending(true);
+			scheduler.queueCatchUp(chunk);
+		}
+	}
+
+	/**
+	 * Advances the melt stamps of chunks which are being melted normally. Chunks which have only just become
+	 * eligible for melting are caught up for the time since they were last stamped instead.
+	 */
+	private static void refreshMeltStamps(ServerLevel level, MeltScheduler scheduler, ChunkMap chunkMap, DistanceManager distanceManager, long elapsedTicks)
+	{
+		scheduler.getStampSlice(STAMP_INTERVAL, stampSlice);
+
+		for (LevelChunk chunk : stampSlice)
+		{
+			ChunkSeasonData data = ChunkSeasonData.get(chunk);
+
+			if (data == null || data.isCatchUpPending() || !canMeltInChunk(level, chunkMap, distanceManager, chunk))
+				continue;
+
+			// Each chunk is visited roughly once per interval, so allow some slack before treating it as stale
+			if (elapsedTicks - data.getLastMeltTicks() > STAMP_INTERVAL * 4)
+			{
+				queueCatchUp(scheduler, chunk, data, elapsedTicks);
+			}
+			else
+			{
+				data.setLastMeltTicks(elapsedTicks);
+			}
+		}
+
+		stampSlice.clear();
+	}
+
+	private static void processCatchUp(ServerLevel level, MeltScheduler scheduler, ISeasonState seasonState, long elapsedTicks, boolean canMelt)
+	{
+		int budget = ServerConfig.catchUpMeltChunksPerTick.get();
+		LevelChunk chunk;
+
+		for (int processed = 0; processed < budget && (chunk = scheduler.pollCatchUp()) != null; processed++)
+		{
+			ChunkSeasonData data = ChunkSeasonData.get(chunk);
+
+			if (data == null)
+				continue;
+
+			long fromTicks = data.getLastMeltTicks();
+			data.setLastMeltTicks(elapsedTicks);
+			data.setCatchUpPending(false);
+
+			if (canMelt && computeMeltExposure(elapsedTicks - fromTicks, seasonState))
+			{
+				if (meltEvent != null) meltEvent.catchUpChunks++;
+
+				long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.CATCH_UP_MELT, level);
+				catchUpMeltInChunk(level, chunk, RandomSource.create(Mth.getSeed(chunk.getPos().x, (int)fromTicks, chunk.getPos().z) ^ elapsedTicks));
+				SeasonMetrics.stop(SeasonMetrics.Probe.CATCH_UP_MELT, level, metricsStart);
+			}
+		}
+	}
+
+	/**
+	 * Computes the expected number of times each column would have been melted during the elapsed time, split by the
+	 * sub season in which the melting would have occurred. The elapsed time is taken to have ended at the current point
+	 * in the season cycle, so setting the season while a chunk is unloaded doesn't change how long it was unloaded for.
+	 *
+	 * @return whether any melting would have occurred
+	 */
+	private static boolean computeMeltExposure(long elapsedTicks, ISeasonState seasonState)
+	{
+		if (elapsedTicks <= 0L)
+			return false;
+
+		int subSeasonDuration = seasonState.getSubSeasonDuration();
+		int cycleDuration = seasonState.getCycleDuration();
+
+		// Whole cycles spend the same time in every sub season, so only the remainder needs to be walked through
+		Arrays.fill(subSeasonTicks, elapsedTicks / cycleDuration * subSeasonDuration);
+		int remaining = (int)(elapsedTicks % cycleDuration);
+		int time = Math.floorMod(seasonState.getSeasonCycleTicks() - remaining, cycleDuration);
+
+		while (remaining > 0)
+		{
+			int index = time / subSeasonDuration;
+			int ticks = Math.min(remaining, (index + 1) * subSeasonDuration - time);
+			subSeasonTicks[index] += ticks;
+			remaining -= ticks;
+			time = (time + ticks) % cycleDuration;
+		}
+
+		boolean exposed = false;
+
+		for (int index = 0; index < meltExposure.length; index++)
+		{
+			MeltChanceInfo meltInfo = ServerConfig.getMeltInfo(Season.SubSeason.VALUES[index]);
+			meltExposure[index] = 0.0F;
+
+			if (subSeasonTicks[index] > 0L && meltInfo != null && meltInfo.getRolls() > 0 && meltInfo.getMeltChance() > 0.0F)
+			{
+				// Each successful roll picks one of the 256 columns in the chunk
+				double columnChance = Math.min(1.0D, meltInfo.getRolls() * (meltInfo.getMeltChance() / 100.0D) / 256.0D);
+				meltExposure[index] = columnChance >= 1.0D ? Float.POSITIVE_INFINITY : (float)(-Math.log1p(-columnChance) * subSeasonTicks[index]);
+				exposed = true;
+			}
+		}
+
+		return exposed;
+	}
+
+	private static void catchUpMeltInChunk(ServerLevel level, LevelChunk chunk, RandomSource random)
+	{
+		MeltIndex meltIndex = MeltIndex.get(chunk);
+
+		if (meltIndex.isEmpty())
+			return;
+
+		ChunkPos chunkPos = chunk.getPos();
+		BlockPos.MutableBlockPos topAirPos = new BlockPos.MutableBlockPos();
+		BlockPos.MutableBlockPos topGroundPos = new BlockPos.MutableBlockPos();
+
+		for (int column = 0; column < 256; column++)
+		{
+			if (!meltIndex.mayMelt(column))
+				continue;
+
+			int x = MeltIndex.getColumnX(column);
+			int z = MeltIndex.getColumnZ(column);
+			int groundY = chunk.getHeight(Heightmap.Types.MOTION_BLOCKING, x, z);
+			topGroundPos.set(chunkPos.getMinBlockX() + x, groundY, chunkPos.getMinBlockZ() + z);
+			topAirPos.set(topGroundPos.getX(), groundY + 1, topGroundPos.getZ());
+			BlockState aboveGroundState = chunk.getBlockState(topAirPos);
+			BlockState groundState = chunk.getBlockState(topGroundPos);
+
+			if (aboveGroundState.getBlock() != Blocks.SNOW && groundState.getBlock() != Blocks.ICE)
+			{
+				meltIndex.clear(column);
+				continue;
+			}
+
+			Holder<Biome> biome = level.getBiome(topAirPos);
+
+			if ((BiomeSeasonTable.getFlags(biome) & BiomeSeasonTable.BLACKLISTED) != 0)
+				continue;
+
+			// Only the sub seasons which were warm enough for melting contribute
+			float exposure = 0.0F;
+
+			for (int i = 0; i < meltExposure.length; i++)
+			{
+				if (meltExposure[i] > 0.0F && SeasonHooks.getBiomeTemperatureInSeason(Season.SubSeason.VALUES[i], biome, topGroundPos) >= 0.15F)
+				{
+					exposure += meltExposure[i];
+				}
+			}
+
+			// A column survives with probability e^-exposure, in which case nothing is done
+			if (exposure <= 0.0F || random.nextFloat() >= 1.0F - (float)Math.exp(-exposure))
+				continue;
+
+			if (aboveGroundState.getBlock() == Blocks.SNOW) level.setBlockAndUpdate(topAirPos.immutable(), Blocks.AIR.defaultBlockState());
+			else ((IceBlock) Blocks.ICE).melt(groundState, level, topGroundPos.immutable());
+
+			SeasonMetrics.count(SeasonMetrics.Counter.BLOCKS_MELTED, level, 1);
+			if (meltEvent != null) meltEvent.blocksMelted++;
+		}
+	}
+
+	private static boolean performMeltRolls(ServerLevel level, MeltScheduler scheduler, Season.SubSeason subSeason, @Nullable MeltBatch batch)
+	{
+		MeltChanceInfo meltInfo =  ServerConfig.getMeltInfo(subSeason);
+		float meltRand = meltInfo.getMeltChance() / 100.0F;
+		int rolls = meltInfo.getRolls();
+
+		if (rolls <= 0 || meltRand <= 0.0F || !SeasonsConfig.generateSnowAndIce.get() || !ServerConfig.isDimensionWhitelisted(level.dimension()))
+			return false;
+
+		// Only the successful rolls are performed, against chunks sampled from those with a ticking ticket level, including
+		// force loaded ones. Player distance changes too often to track, so only the sampled chunk is checked.
+		int meltRolls = scheduler.getRollCount(scheduler.getTickingChunkCount(), rolls, meltRand, ServerConfig.maxMeltRollsPerTick.get(), level.random);
+		int rolled = scheduler.performRolls(meltRolls, level.random, new MeltRollTarget(level, batch));
+
+		SeasonMetrics.count(SeasonMetrics.Counter.MELT_CHUNKS_VISITED, level, rolled);
+
+		if (meltEvent != null)
+		{
+			meltEvent.chunksVisited += rolled;
+			meltEvent.rolls += meltRolls;
+		}
+
+		return true;
+	}
+
+	private static class MeltRollTarget implements MeltScheduler.RollTarget
+	{
+		private final ServerLevel level;
+		private final ChunkMap chunkMap;
+		private final DistanceManager distanceManager;
+		@Nullable
+		private final MeltBatch batch;
+
+		private MeltRollTarget(ServerLevel level, @Nullable MeltBatch batch)
+		{
+			this.level = level;
+			this.chunkMap = level.getChunkSource().chunkMap;
+			this.distanceManager = this.chunkMap.getDistanceManager();
+			this.batch = batch;
+		}
+
+		@Override
+		public boolean canRoll(LevelChunk chunk)
+		{
+			return canMeltInChunk(this.level, this.chunkMap, this.distanceManager, chunk);
+		}
+
+		@Override
+		public void roll(LevelChunk chunk)
+		{
+			long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.MELT_ROLL, this.level);
+			meltInChunk(this.level, chunk, this.batch);
+			SeasonMetrics.stop(SeasonMetrics.Probe.MELT_ROLL, this.level, metricsStart);
+		}
+	}
+
 	//Randomly melt ice and snow when it isn't winter
 	@SubscribeEvent
 	public static void onWorldTick(TickEvent.LevelTickEvent event)
 	{
-		if (event.phase == TickEvent.Phase.END && event.side == LogicalSide.SERVER)
-		{
-			Season.SubSeason subSeason = SeasonHelper.getSeasonState(event.level).getSubSeason();
-			Season season = subSeason.getSeason();
+		if (event.side != LogicalSide.SERVER)
+			return;
 
-			MeltChanceInfo meltInfo =  ServerConfig.getMeltInfo(subSeason);
-			float meltRand = meltInfo.getMeltChance() / 100.0F;
-			int rolls = meltInfo.getRolls();
+		ServerLevel level = (ServerLevel) event.level;
+		MeltScheduler scheduler = getMeltScheduler(level);
 
-			adjustWeatherFrequency(event.level, season);
+		if (event.phase == TickEvent.Phase.START)
+		{
+			if (SeasonFlightEvents.MELT_TICK.isEnabled())
+			{
+				SeasonFlightEvents.MeltTick tickEvent = new SeasonFlightEvents.MeltTick();
+				tickEvent.begin();
+				meltEvent = tickEvent;
+			}
 
-			if(rolls > 0 && meltRand > 0.0F)
+			// Candidates are selected at the start of the tick so they can be checked while the rest of the level ticks
+			if (ServerConfig.parallelMeltSelection.get())
 			{
-				if (SeasonsConfig.generateSnowAndIce.get() && ServerConfig.isDimensionWhitelisted(event.level.dimension()))
+				Season.SubSeason subSeason = SeasonHelper.getSeasonState(level).getSubSeason();
+				MeltBatch batch = new MeltBatch(level, subSeason);
+
+				if (performMeltRolls(level, scheduler, subSeason, batch))
 				{
-					ServerLevel level = (ServerLevel) event.level;
-					ChunkMap chunkMap = level.getChunkSource().chunkMap;
-					DistanceManager distanceManager = chunkMap.getDistanceManager();
-
-					int l = distanceManager.getNaturalSpawnChunkCount();
-					List<ChunkAndHolder> list = Lists.newArrayListWithCapacity(l);
-
-					// Replicate the behaviour of ServerChunkCache
-					for (ChunkHolder chunkholder : chunkMap.getChunks())
-					{
-						LevelChunk levelchunk = chunkholder.getTickingChunk();
-						if (levelchunk != null)
-						{
-							list.add(new ChunkAndHolder(levelchunk, chunkholder));
-						}
-					}
-
-					Collections.shuffle(list);
-
-					for (ChunkAndHolder serverchunkcache$chunkandholder : list)
-					{
-						LevelChunk levelChunk = serverchunkcache$chunkandholder.chunk;
-						ChunkPos chunkpos = levelChunk.getPos();
-						if ((chunkMap.anyPlayerCloseEnoughForSpawning(chunkpos)) || distanceManager.shouldForceTicks(chunkpos.toLong()))
-						{
-							if (level.shouldTickBlocksAt(chunkpos.toLong()))
-							{
-								for(int i = 0; i < rolls; i++)
-								{
-									meltInChunk(chunkMap, levelChunk, meltRand);
-								}
-							}
-						}
-					}
+					batch.submit();
+					scheduler.setPendingBatch(batch);
 				}
 			}
+
+			return;
+		}
+
+		ISeasonState seasonState = SeasonHelper.getSeasonState(level);
+		Season.SubSeason subSeason = seasonState.getSubSeason();
+
+		adjustWeatherFrequency(level, subSeason.getSeason());
+
+		ChunkMap chunkMap = level.getChunkSource().chunkMap;
+		boolean canMelt = SeasonsConfig.generateSnowAndIce.get() && ServerConfig.isDimensionWhitelisted(level.dimension());
+
+		// Stamps are kept up to date regardless of the season so unloaded time is always measured correctly
+		long elapsedTicks = SeasonHandler.getSeasonSavedData(level).elapsedTicks;
+		refreshMeltStamps(level, scheduler, chunkMap, chunkMap.getDistanceManager(), elapsedTicks);
+		processCatchUp(level, scheduler, seasonState, elapsedTicks, canMelt);
+
+		MeltBatch batch = scheduler.takePendingBatch();
+
+		if (batch != null)
+		{
+			int melted = batch.apply(scheduler);
+			if (meltEvent != null) meltEvent.blocksMelted += melted;
+		}
+		else if (!ServerConfig.parallelMeltSelection.get())
+		{
+			performMeltRolls(level, scheduler, subSeason, null);
 		}
+
+		commitMeltEvent(level, batch != null);
 	}
 
-	record ChunkAndHolder(LevelChunk chunk, ChunkHolder holder) {
+	private static void commitMeltEvent(ServerLevel level, boolean parallel)
+	{
+		SeasonFlightEvents.MeltTick tickEvent = meltEvent;
+
+		if (tickEvent == null)
+			return;
+
+		meltEvent = null;
+		tickEvent.end();
+
+		if (tickEvent.shouldCommit())
+		{
+			tickEvent.dimension = level.dimension().location().toString();
+			tickEvent.parallel = parallel;
+			tickEvent.commit();
+		}
 	}
-}
\ No newline at end of file
+}
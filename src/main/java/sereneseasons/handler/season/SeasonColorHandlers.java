@@ -3,39 +3,51 @@ package sereneseasons.handler.season;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BiomeColors;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Holder;
-import net.minecraft.core.Registry;
-import net.minecraft.core.registries.Registries;
-import net.minecraft.resources.ResourceKey;
 import net.minecraft.world.level.BlockAndTintGetter;
 import net.minecraft.world.level.ColorResolver;
 import net.minecraft.world.level.FoliageColor;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
-import sereneseasons.api.season.ISeasonColorProvider;
-import sereneseasons.config.ServerConfig;
-import sereneseasons.init.ModTags;
-import sereneseasons.season.SeasonTime;
-import sereneseasons.util.SeasonColorUtil;
+import net.minecraftforge.client.event.RegisterColorHandlersEvent;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import sereneseasons.api.season.ISeasonState;
+import sereneseasons.config.ClientConfig;
+import sereneseasons.core.SereneSeasons;
+import sereneseasons.util.SeasonColorCache;
 
 import javax.annotation.Nullable;
 
 @OnlyIn(Dist.CLIENT)
+@Mod.EventBusSubscriber(modid = SereneSeasons.MOD_ID, bus = Mod.EventBusSubscriber.Bus.MOD, value = Dist.CLIENT)
 public class SeasonColorHandlers
 {
 	public static void setup()
     {
 		registerGrassAndFoliageColorHandlers();
 		registerBirchColorHandler();
+		MinecraftForge.EVENT_BUS.addListener(SeasonColorHandlers::onRenderTick);
     }
 
 	private static ColorResolver originalGrassColorResolver;
 	private static ColorResolver originalFoliageColorResolver;
 
+	public static final ColorResolver BIRCH_COLOR_RESOLVER = (biome, x, z) ->
+	{
+		Level level = Minecraft.getInstance().level;
+		return level != null ? getColorCache(level).getBirchColor(biome) : FoliageColor.getBirchColor();
+	};
+
+	// Accessed from the chunk meshing threads. The colour key is published after the season it was computed from,
+	// so a cache created from an older season than the current key is never used once the key changes.
+	private static volatile SeasonColorCache colorCache;
+	private static volatile int colorKey = -1;
+
 	private static void registerGrassAndFoliageColorHandlers()
 	{
 		originalGrassColorResolver = BiomeColors.GRASS_COLOR_RESOLVER;
@@ -43,69 +55,107 @@ public class SeasonColorHandlers
 
 		BiomeColors.GRASS_COLOR_RESOLVER = (biome, x, z) ->
 		{
-			Minecraft minecraft = Minecraft.getInstance();
-			Level level = minecraft.level;
-			Registry<Biome> biomeRegistry = level.registryAccess().registryOrThrow(Registries.BIOME);
-			Holder<Biome> biomeHolder = biomeRegistry.getResourceKey(biome).flatMap(key -> biomeRegistry.getHolder(key)).orElse(null);
 			int originalColor = originalGrassColorResolver.getColor(biome, x, z);
+			Level level = Minecraft.getInstance().level;
 
-			if (biomeHolder != null)
-			{
-				SeasonTime calendar = SeasonHandler.getClientSeasonTime();
-				ISeasonColorProvider colorProvider = biomeHolder.is(ModTags.Biomes.TROPICAL_BIOMES) ? calendar.getTropicalSeason() : calendar.getSubSeason();
-
-				return SeasonColorUtil.applySeasonalGrassColouring(colorProvider, biomeHolder, originalColor);
-			}
-
-			return originalColor;
+			return level != null ? getColorCache(level).getGrassColor(biome, originalColor) : originalColor;
 		};
 
 		BiomeColors.FOLIAGE_COLOR_RESOLVER = (biome, x, z) ->
 		{
-			Minecraft minecraft = Minecraft.getInstance();
-			Level level = minecraft.level;
-			Registry<Biome> biomeRegistry = level.registryAccess().registryOrThrow(Registries.BIOME);
-			Holder<Biome> biomeHolder = biomeRegistry.getResourceKey(biome).flatMap(key -> biomeRegistry.getHolder(key)).orElse(null);
 			int originalColor = originalFoliageColorResolver.getColor(biome, x, z);
+			Level level = Minecraft.getInstance().level;
 
-			if (biomeHolder != null)
-			{
-				SeasonTime calendar = SeasonHandler.getClientSeasonTime();
-				ISeasonColorProvider colorProvider = biomeHolder.is(ModTags.Biomes.TROPICAL_BIOMES) ? calendar.getTropicalSeason() : calendar.getSubSeason();
+			return level != null ? getColorCache(level).getFoliageColor(biome, originalColor) : originalColor;
+		};
+	}
 
-				return SeasonColorUtil.applySeasonalFoliageColouring(colorProvider, biomeHolder, originalColor);
+	private static SeasonColorCache getColorCache(Level level)
+	{
+		SeasonColorCache cache = colorCache;
+		int key = colorKey;
+
+		if (cache == null || !cache.isValid(level, key))
+		{
+			SeasonFlightEvents.ColorCacheRebuild rebuildEvent = new SeasonFlightEvents.ColorCacheRebuild();
+			rebuildEvent.begin();
+
+			ISeasonState seasonState = SeasonHandler.getClientSeasonTime();
+			int transitionSteps = getColorTransitionSteps();
+			cache = new SeasonColorCache(level, key, seasonState, transitionSteps);
+			colorCache = cache;
+
+			rebuildEvent.end();
+
+			if (rebuildEvent.shouldCommit())
+			{
+				rebuildEvent.dimension = level.dimension().location().toString();
+				rebuildEvent.subSeason = seasonState.getSubSeason().toString();
+				rebuildEvent.colorKey = key;
+				rebuildEvent.transitionSteps = transitionSteps;
+				rebuildEvent.commit();
 			}
+		}
 
-			return originalColor;
-		};
+		return cache;
+	}
+
+	private static int getColorTransitionSteps()
+	{
+		return ClientConfig.smoothColorTransitions.get() ? ClientConfig.colorTransitionSteps.get() : 0;
+	}
+
+	/**
+	 * Called every client tick with the current season, re-rendering chunks whenever their colours change.
+	 */
+	public static void onClientSeasonTick(ISeasonState seasonState)
+	{
+		int transitionSteps = getColorTransitionSteps();
+		int newColorKey = SeasonColorCache.getColorKey(seasonState, transitionSteps);
+		int lastColorKey = colorKey;
+
+		if (newColorKey == lastColorKey)
+			return;
+
+		// Discard the colours computed for the previous step before any chunks are re-rendered
+		colorKey = newColorKey;
+		colorCache = null;
+
+		if (transitionSteps > 0 && lastColorKey != -1)
+		{
+			SectionRetintHandler.retintAll();
+		}
+		else
+		{
+			Minecraft.getInstance().levelRenderer.allChanged();
+		}
+	}
+
+	private static void onRenderTick(TickEvent.RenderTickEvent event)
+	{
+		if (event.phase == TickEvent.Phase.START)
+		{
+			SectionRetintHandler.retintQueued(ClientConfig.sectionRetintsPerFrame.get());
+		}
 	}
 
 	private static void registerBirchColorHandler()
 	{
 		Minecraft.getInstance().getBlockColors().register((BlockState state, @Nullable BlockAndTintGetter dimensionReader, @Nullable BlockPos pos, int tintIndex) ->
 		{
-			int birchColor = FoliageColor.getBirchColor();
-			Level level = Minecraft.getInstance().player.level();
-			ResourceKey<Level> dimension = Minecraft.getInstance().player.level().dimension();
-
-			if (level != null && pos != null && ServerConfig.changeBirchColor.get() && ServerConfig.isDimensionWhitelisted(dimension))
+			// Tints are cached per chunk by the level, so the resolver only runs when a position's tint isn't yet known
+			if (dimensionReader != null && pos != null)
 			{
-				Holder<Biome> biome = level.getBiome(pos);
-
-				if (!biome.is(ModTags.Biomes.BLACKLISTED_BIOMES))
-				{
-					SeasonTime calendar = SeasonHandler.getClientSeasonTime();
-					ISeasonColorProvider colorProvider = biome.is(ModTags.Biomes.TROPICAL_BIOMES) ? calendar.getTropicalSeason() : calendar.getSubSeason();
-					birchColor = colorProvider.getBirchColor();
-
-					if (biome.is(ModTags.Biomes.LESSER_COLOR_CHANGE_BIOMES))
-					{
-						birchColor = SeasonColorUtil.mixColours(colorProvider.getBirchColor(), FoliageColor.getBirchColor(), 0.75F);
-					}
-				}
+				return dimensionReader.getBlockTint(pos, BIRCH_COLOR_RESOLVER);
 			}
 
-			return birchColor;
+			return FoliageColor.getBirchColor();
 		}, Blocks.BIRCH_LEAVES);
 	}
+
+	@SubscribeEvent
+	public static void onRegisterColorResolvers(RegisterColorHandlersEvent.ColorResolvers event)
+	{
+		event.register(BIRCH_COLOR_RESOLVER);
+	}
 }
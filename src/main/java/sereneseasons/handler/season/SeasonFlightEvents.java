@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.handler.season;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events for season processing, so it can be correlated with GC pauses and tick lag in a
+ * recording. Events raised every tick or for every crop are only created while a recording has them enabled, as
+ * checked through their types below, and their thresholds may be changed per recording, for example with
+ * {@code sereneseasons.MeltTick#threshold=0 ms}.
+ */
+public final class SeasonFlightEvents
+{
+    private static final String CATEGORY = "Serene Seasons";
+
+    static final EventType SEASON_TICK = EventType.getEventType(SeasonTick.class);
+    static final EventType MELT_TICK = EventType.getEventType(MeltTick.class);
+    static final EventType FERTILITY_DENIALS = EventType.getEventType(FertilityDenials.class);
+    static final EventType SEASON_SYNC = EventType.getEventType(SeasonSync.class);
+
+    @Name("sereneseasons.SeasonTick")
+    @Label("Season Tick")
+    @Description("Advancing the season cycle of a dimension")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class SeasonTick extends Event
+    {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Season Cycle Ticks")
+        public int seasonCycleTicks;
+
+        @Label("Synced")
+        @Description("Whether the season was synced to players")
+        public boolean synced;
+    }
+
+    @Name("sereneseasons.SubSeasonChange")
+    @Label("Sub Season Change")
+    @Description("A dimension entering a new sub season")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class SubSeasonChange extends Event
+    {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Previous Sub Season")
+        public String previousSubSeason;
+
+        @Label("Sub Season")
+        public String subSeason;
+    }
+
+    @Name("sereneseasons.MeltTick")
+    @Label("Melt Tick")
+    @Description("Melting snow and ice in a dimension over a tick, including any catch up for reloaded chunks")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class MeltTick extends Event
+    {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Chunks Visited")
+        @Description("Chunks melt rolls were made in, excluding those sampled which weren't close enough to a player")
+        public int chunksVisited;
+
+        @Label("Melt Rolls")
+        public int rolls;
+
+        @Label("Catch Up Chunks")
+        public int catchUpChunks;
+
+        @Label("Blocks Melted")
+        public int blocksMelted;
+
+        @Label("Parallel")
+        @Description("Whether melt candidates were selected on worker threads")
+        public boolean parallel;
+    }
+
+    @Name("sereneseasons.FertilityDenials")
+    @Label("Fertility Denials")
+    @Description("Crops prevented from growing out of season in a dimension over a tick")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class FertilityDenials extends Event
+    {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Growth Denied")
+        public int growthDenied;
+
+        @Label("Bonemeal Denied")
+        public int bonemealDenied;
+
+        @Label("Crops Destroyed")
+        public int cropsDestroyed;
+    }
+
+    @Name("sereneseasons.ColorCacheRebuild")
+    @Label("Color Cache Rebuild")
+    @Description("Creating a new cache of seasonal grass and foliage colours on the client")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ColorCacheRebuild extends Event
+    {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Sub Season")
+        public String subSeason;
+
+        @Label("Color Key")
+        public int colorKey;
+
+        @Label("Transition Steps")
+        public int transitionSteps;
+    }
+
+    @Name("sereneseasons.SeasonSync")
+    @Label("Season Sync")
+    @Description("Sending the season of a dimension to players")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class SeasonSync extends Event
+    {
+        @Label("Dimension")
+        public String dimension;
+
+        @Label("Full")
+        @Description("Whether the full season was sent rather than the change since the previous sync")
+        public boolean full;
+
+        @Label("Recipients")
+        public int recipients;
+
+        @Label("Payload Size")
+        @Description("The size of the message sent to each player, excluding packet framing")
+        @DataAmount
+        public int payloadBytes;
+    }
+}
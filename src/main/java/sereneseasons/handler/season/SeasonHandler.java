@@ -4,22 +4,29 @@
  ******************************************************************************/
 package sereneseasons.handler.season;
 
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.Holder;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.util.Mth;
 import net.minecraft.util.datafix.DataFixTypes;
-import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.saveddata.SavedData;
 import net.minecraft.world.level.storage.DimensionDataStorage;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.network.PacketDistributor;
 import sereneseasons.api.SSGameRules;
@@ -29,12 +36,19 @@ import sereneseasons.api.season.SeasonChangedEvent;
 import sereneseasons.api.season.SeasonHelper;
 import sereneseasons.config.ServerConfig;
 import sereneseasons.handler.PacketHandler;
-import sereneseasons.init.ModTags;
+import sereneseasons.network.message.MessageSyncDimensionIds;
 import sereneseasons.network.message.MessageSyncSeasonCycle;
+import sereneseasons.season.BiomeSeasonTable;
+import sereneseasons.season.ClientSeasonClock;
 import sereneseasons.season.SeasonSavedData;
 import sereneseasons.season.SeasonTime;
+import sereneseasons.util.SeasonMetrics;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 public class SeasonHandler implements SeasonHelper.ISeasonDataProvider
@@ -46,56 +60,162 @@ public class SeasonHandler implements SeasonHelper.ISeasonDataProvider
 
         if (event.phase == TickEvent.Phase.END && !world.isClientSide)
         {
-            if (!ServerConfig.progressSeasonWhileOffline.get())
+            SeasonFlightEvents.SeasonTick tickEvent = null;
+
+            if (SeasonFlightEvents.SEASON_TICK.isEnabled())
             {
-                MinecraftServer server = world.getServer();
-                if (server != null && server.getPlayerList().getPlayerCount() == 0)
-                    return;
+                tickEvent = new SeasonFlightEvents.SeasonTick();
+                tickEvent.begin();
             }
 
-            // Only tick seasons if the game rule is enabled
-            if (!world.getGameRules().getBoolean(SSGameRules.RULE_DOSEASONCYCLE))
-                return;
-                
             SeasonSavedData savedData = getSeasonSavedData(world);
+            int heartbeatInterval = ServerConfig.seasonSyncHeartbeatInterval.get();
 
-            // Clamp season cycle ticks to prevent a bad state occurring
-            savedData.seasonCycleTicks = Mth.clamp(savedData.seasonCycleTicks, 0, SeasonTime.ZERO.getCycleDuration());
+            // Players advance the season themselves, so it only needs to be synced when a new sub season begins
+            // and occasionally to correct any drift
+            boolean sync = tickSeasonCycle(world, savedData) || (heartbeatInterval > 0 && world.getGameTime() % heartbeatInterval == 0);
 
-            if (++savedData.seasonCycleTicks > SeasonTime.ZERO.getCycleDuration())
+            if (sync)
             {
-                savedData.seasonCycleTicks = 0;
+                sendSeasonUpdate(world);
             }
-            
-            if (savedData.seasonCycleTicks % 20 == 0)
+
+            // Rebuild the snapshot handed out by getSeasonState once per tick, picking up any config changes
+            savedData.updateSnapshot();
+
+            if (tickEvent != null)
             {
-                sendSeasonUpdate(world);
+                tickEvent.end();
             }
 
-            savedData.setDirty();
+            if (tickEvent != null && tickEvent.shouldCommit())
+            {
+                tickEvent.dimension = world.dimension().location().toString();
+                tickEvent.seasonCycleTicks = savedData.seasonCycleTicks;
+                tickEvent.synced = sync;
+                tickEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Advances the season cycle of a level, returning whether a new sub season has begun.
+     */
+    private static boolean tickSeasonCycle(Level world, SeasonSavedData savedData)
+    {
+        if (!ServerConfig.progressSeasonWhileOffline.get())
+        {
+            MinecraftServer server = world.getServer();
+            if (server != null && server.getPlayerList().getPlayerCount() == 0)
+                return false;
+        }
+
+        // Only tick seasons if the game rule is enabled
+        if (!world.getGameRules().getBoolean(SSGameRules.RULE_DOSEASONCYCLE))
+            return false;
+
+        // Clamp season cycle ticks to prevent a bad state occurring
+        savedData.seasonCycleTicks = Mth.clamp(savedData.seasonCycleTicks, 0, SeasonTime.ZERO.getCycleDuration());
+
+        savedData.elapsedTicks++;
+
+        if (++savedData.seasonCycleTicks > SeasonTime.ZERO.getCycleDuration())
+        {
+            savedData.seasonCycleTicks = 0;
+        }
+
+        savedData.setDirty();
+        return savedData.seasonCycleTicks % SeasonTime.ZERO.getSubSeasonDuration() == 0;
+    }
+
+    /**
+     * Syncs every level when the season cycle game rule changes, letting players know whether to keep advancing the season.
+     */
+    public static void onSeasonCycleRuleChanged(MinecraftServer server, GameRules.BooleanValue value)
+    {
+        for (ServerLevel level : server.getAllLevels())
+        {
+            sendSeasonUpdate(level);
         }
     }
     
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event)
+    {
+        if (event.phase != TickEvent.Phase.END)
+            return;
+
+        SeasonMetrics.onServerTick();
+
+        int logInterval = ServerConfig.metricsLogInterval.get();
+
+        if (logInterval > 0 && SeasonMetrics.isEnabled() && event.getServer().getTickCount() % (logInterval * 20L) == 0)
+        {
+            SeasonMetrics.log();
+        }
+    }
+
+    @SubscribeEvent
+    public void onTagsUpdated(TagsUpdatedEvent event)
+    {
+        BiomeSeasonTable.rebuild(event.getRegistryAccess(), event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.CLIENT_PACKET_RECEIVED);
+    }
+
     @SubscribeEvent
     public void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event)
     {
-        Player player = event.getEntity();
-        Level world = player.level();
-        
-        sendSeasonUpdate(world);
+        if (!(event.getEntity() instanceof ServerPlayer player))
+            return;
+
+        // Assign ids to every dimension up front so the player only needs to be sent them once
+        for (ServerLevel level : player.server.getAllLevels())
+        {
+            addDimensionId(level.dimension());
+        }
+
+        PacketHandler.HANDLER.send(new MessageSyncDimensionIds(List.copyOf(dimensionsById)), PacketDistributor.PLAYER.with(player));
+        sendFullSeasonUpdate(player);
     }
 
-    private Season.SubSeason lastSeason = null;
-    public static final HashMap<ResourceKey<Level>, Integer> clientSeasonCycleTicks = new HashMap<>();
-    public static SeasonTime getClientSeasonTime() {
-        Integer i = clientSeasonCycleTicks.get(Minecraft.getInstance().level.dimension());
-    	return new SeasonTime(i == null ? 0 : i);
+    @SubscribeEvent
+    public void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event)
+    {
+        if (event.getEntity() instanceof ServerPlayer player)
+        {
+            sendFullSeasonUpdate(player);
+        }
+    }
+
+    public static final ClientSeasonClock clientSeasonClock = new ClientSeasonClock();
+    private static List<ResourceKey<Level>> clientDimensionIds = List.of();
+
+    public static void setClientDimensionIds(List<ResourceKey<Level>> dimensions)
+    {
+        clientDimensionIds = dimensions;
+    }
+
+    @Nullable
+    public static ResourceKey<Level> getClientDimension(int dimensionId)
+    {
+        return dimensionId >= 0 && dimensionId < clientDimensionIds.size() ? clientDimensionIds.get(dimensionId) : null;
+    }
+
+    public static ISeasonState getClientSeasonTime() {
+        return clientSeasonClock.getSnapshot();
     }
 
     @SubscribeEvent
     public void onWorldLoaded(LevelEvent.Load event)
     {
-        clientSeasonCycleTicks.clear();
+        if (event.getLevel().isClientSide())
+        {
+            clientSeasonClock.reset(null);
+        }
+        else if (event.getLevel() instanceof ServerLevel level)
+        {
+            // Load the saved data on the server thread up front, as it may first be needed by worldgen threads
+            getSeasonSavedData(level);
+        }
     }
 
     @SubscribeEvent
@@ -107,26 +227,50 @@ public class SeasonHandler implements SeasonHelper.ISeasonDataProvider
 
         if (event.phase == TickEvent.Phase.END && ServerConfig.isDimensionWhitelisted(dimension))
         {
-            clientSeasonCycleTicks.compute(dimension, (k, v) -> v == null ? 0 : v + 1);
-        	
-            //Keep ticking as we're synchronized with the server only every second
-            if (clientSeasonCycleTicks.get(dimension) > SeasonTime.ZERO.getCycleDuration())
-            {
-                clientSeasonCycleTicks.put(dimension, 0);
-            }
-            
-            SeasonTime calendar = new SeasonTime(clientSeasonCycleTicks.get(dimension));
-            
-            if (calendar.getSubSeason() != lastSeason)
+            if (clientSeasonClock.getDimension() != dimension)
             {
-                Minecraft.getInstance().levelRenderer.allChanged();
-                lastSeason = calendar.getSubSeason();
+                clientSeasonClock.reset(dimension);
             }
+
+            //Keep ticking as we're only synchronized with the server when the season changes
+            clientSeasonClock.tick();
+            SeasonColorHandlers.onClientSeasonTick(clientSeasonClock.getSnapshot());
         }
     }
 
     public static final HashMap<ResourceKey<Level>, Integer> prevServerSeasonCycleTicks = new HashMap<>();
 
+    // Changes larger than this are sent in full, realigning clients in case they've fallen out of step
+    private static final int RESYNC_THRESHOLD = 1 << 13;
+
+    // Ids used to refer to dimensions in sync messages, in the order they were assigned
+    private static final Object2IntMap<ResourceKey<Level>> dimensionIds = new Object2IntOpenHashMap<>();
+    private static final List<ResourceKey<Level>> dimensionsById = new ArrayList<>();
+
+    // The season cycle ticks each dimension's players were last synced to
+    private static final HashMap<ResourceKey<Level>, Integer> serverSyncedSeasonCycleTicks = new HashMap<>();
+
+    private static boolean addDimensionId(ResourceKey<Level> dimension)
+    {
+        if (dimensionIds.containsKey(dimension))
+            return false;
+
+        dimensionIds.put(dimension, dimensionsById.size());
+        dimensionsById.add(dimension);
+        return true;
+    }
+
+    private static int getDimensionId(ResourceKey<Level> dimension)
+    {
+        // Dimensions may be added after players have logged in, in which case everyone needs the new ids
+        if (addDimensionId(dimension))
+        {
+            PacketHandler.HANDLER.send(new MessageSyncDimensionIds(List.copyOf(dimensionsById)), PacketDistributor.ALL.noArg());
+        }
+
+        return dimensionIds.getInt(dimension);
+    }
+
     public static void sendSeasonUpdate(Level level)
     {
         if (level.isClientSide)
@@ -148,16 +292,119 @@ public class SeasonHandler implements SeasonHelper.ISeasonDataProvider
 
         // Fire an event on standard season changes
         if (!prevSeason.equals(newSeason))
+        {
             MinecraftForge.EVENT_BUS.post(new SeasonChangedEvent.Standard(level, prevSeason, newSeason));
 
+            SeasonFlightEvents.SubSeasonChange changeEvent = new SeasonFlightEvents.SubSeasonChange();
+
+            if (changeEvent.shouldCommit())
+            {
+                changeEvent.dimension = level.dimension().location().toString();
+                changeEvent.previousSubSeason = prevSeason.toString();
+                changeEvent.subSeason = newSeason.toString();
+                changeEvent.commit();
+            }
+        }
+
         // Fire an event on tropical season changes
         if (!prevTropicalSeason.equals(newTropicalSeason))
             MinecraftForge.EVENT_BUS.post(new SeasonChangedEvent.Tropical(level, prevTropicalSeason, newTropicalSeason));
 
-        // Send the update packet
-        PacketHandler.HANDLER.send(new MessageSyncSeasonCycle(level.dimension(), savedData.seasonCycleTicks), PacketDistributor.ALL.noArg());
+        // Send the update packet to players in the dimension
+        int dimensionId = getDimensionId(level.dimension());
+        int seasonCycleTicks = savedData.seasonCycleTicks;
+        boolean paused = isSeasonCyclePaused(level);
+        Integer syncedTicks = serverSyncedSeasonCycleTicks.put(level.dimension(), seasonCycleTicks);
+        int delta = syncedTicks == null ? Integer.MAX_VALUE : MessageSyncSeasonCycle.getCycleDelta(syncedTicks, seasonCycleTicks);
+        MessageSyncSeasonCycle message = Math.abs(delta) > RESYNC_THRESHOLD ? MessageSyncSeasonCycle.full(dimensionId, paused, seasonCycleTicks, seasonCycleTicks) : MessageSyncSeasonCycle.delta(dimensionId, paused, delta);
+
+        sendSeasonMessage(level, message, PacketDistributor.DIMENSION.with(level.dimension()), level.players().size());
+    }
+
+    private static void sendFullSeasonUpdate(ServerPlayer player)
+    {
+        ServerLevel level = player.serverLevel();
+        int seasonCycleTicks = getSeasonSavedData(level).seasonCycleTicks;
+
+        // Later updates to the dimension are relative to what it was last synced to, which may not be the current time
+        int baseSeasonCycleTicks = serverSyncedSeasonCycleTicks.computeIfAbsent(level.dimension(), key -> seasonCycleTicks);
+
+        sendSeasonMessage(level, MessageSyncSeasonCycle.full(getDimensionId(level.dimension()), isSeasonCyclePaused(level), seasonCycleTicks, baseSeasonCycleTicks), PacketDistributor.PLAYER.with(player), 1);
+    }
+
+    private static void sendSeasonMessage(Level level, MessageSyncSeasonCycle message, PacketDistributor.PacketTarget target, int recipients)
+    {
+        SeasonFlightEvents.SeasonSync syncEvent = null;
+
+        if (SeasonFlightEvents.SEASON_SYNC.isEnabled())
+        {
+            syncEvent = new SeasonFlightEvents.SeasonSync();
+            syncEvent.begin();
+        }
+
+        long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.SEASON_SYNC, level);
+        PacketHandler.HANDLER.send(message, target);
+        SeasonMetrics.stop(SeasonMetrics.Probe.SEASON_SYNC, level, metricsStart);
+
+        if (syncEvent != null)
+        {
+            syncEvent.end();
+        }
+
+        boolean recordEvent = syncEvent != null && syncEvent.shouldCommit();
+
+        if (!recordEvent && !SeasonMetrics.isCollecting())
+            return;
+
+        // Only the message itself is measured, excluding the channel and packet framing
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        MessageSyncSeasonCycle.encode(message, buf);
+        int payloadBytes = buf.readableBytes();
+        buf.release();
+
+        SeasonMetrics.count(SeasonMetrics.Counter.SYNC_PACKETS, level, recipients);
+        SeasonMetrics.count(SeasonMetrics.Counter.SYNC_PAYLOAD_BYTES, level, (long)payloadBytes * recipients);
+
+        if (recordEvent)
+        {
+            syncEvent.dimension = level.dimension().location().toString();
+            syncEvent.full = message.full;
+            syncEvent.recipients = recipients;
+            syncEvent.payloadBytes = payloadBytes;
+            syncEvent.commit();
+        }
+    }
+
+    private static boolean isSeasonCyclePaused(Level level)
+    {
+        return !level.getGameRules().getBoolean(SSGameRules.RULE_DOSEASONCYCLE);
     }
     
+    // Saved data is looked up once per level rather than going through the data storage on every call. Season
+    // states are also read from worldgen threads, so the map must be safe to read concurrently.
+    private static final ConcurrentHashMap<ResourceKey<Level>, SeasonSavedData> serverSeasonSavedData = new ConcurrentHashMap<>();
+
+    @SubscribeEvent
+    public void onWorldUnloaded(LevelEvent.Unload event)
+    {
+        if (event.getLevel() instanceof ServerLevel level)
+        {
+            serverSeasonSavedData.remove(level.dimension());
+            serverSyncedSeasonCycleTicks.remove(level.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event)
+    {
+        // Nothing from this server should carry over to the next one started by the same game, such as another singleplayer world
+        serverSeasonSavedData.clear();
+        serverSyncedSeasonCycleTicks.clear();
+        prevServerSeasonCycleTicks.clear();
+        dimensionIds.clear();
+        dimensionsById.clear();
+    }
+
     public static SeasonSavedData getSeasonSavedData(Level w)
     {
         if (w.isClientSide() || !(w instanceof ServerLevel))
@@ -165,7 +412,18 @@ public class SeasonHandler implements SeasonHelper.ISeasonDataProvider
             return null;
         }
 
-        ServerLevel world = (ServerLevel)w;
+        SeasonSavedData savedData = serverSeasonSavedData.get(w.dimension());
+
+        if (savedData == null)
+        {
+            savedData = serverSeasonSavedData.computeIfAbsent(w.dimension(), key -> loadSeasonSavedData((ServerLevel)w));
+        }
+
+        return savedData;
+    }
+
+    private static SeasonSavedData loadSeasonSavedData(ServerLevel world)
+    {
         DimensionDataStorage saveDataManager = world.getChunkSource().getDataStorage();
 
         Supplier<SeasonSavedData> defaultSaveDataSupplier = () ->
@@ -198,20 +456,24 @@ public class SeasonHandler implements SeasonHelper.ISeasonDataProvider
     @Override
     public ISeasonState getServerSeasonState(Level world)
     {
-        SeasonSavedData savedData = getSeasonSavedData(world);
-        return new SeasonTime(savedData.seasonCycleTicks);
+        return getSeasonSavedData(world).getSnapshot();
     }
 
     @Override
     public ISeasonState getClientSeasonState()
     {
-        Integer i = clientSeasonCycleTicks.get(Minecraft.getInstance().level.dimension());
-    	return new SeasonTime(i == null ? 0 : i);
+        return clientSeasonClock.getSnapshot();
     }
 
     @Override
     public boolean usesTropicalSeasons(Holder<Biome> biome)
     {
-        return biome.is(ModTags.Biomes.TROPICAL_BIOMES);
+        return (BiomeSeasonTable.getFlags(biome) & BiomeSeasonTable.TROPICAL) != 0;
+    }
+
+    @Override
+    public int getBiomeFlags(Holder<Biome> biome)
+    {
+        return BiomeSeasonTable.getFlags(biome);
     }
 }
@@ -1,15 +1,11 @@
 package sereneseasons.handler.season;
 
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Registry;
-import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.core.registries.Registries;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.biome.Biome;
-import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.event.entity.player.BonemealEvent;
 import net.minecraftforge.event.entity.player.ItemTooltipEvent;
@@ -20,10 +16,20 @@ import net.minecraftforge.fml.common.Mod;
 import sereneseasons.config.FertilityConfig;
 import sereneseasons.init.ModFertility;
 import sereneseasons.init.ModTags;
+import sereneseasons.season.GreenhouseIndex;
+import sereneseasons.util.SeasonMetrics;
+
+import javax.annotation.Nullable;
 
 @Mod.EventBusSubscriber
 public class SeasonalCropGrowthHandler
 {
+	// Accumulates the crops denied in a level while a flight recording is capturing them
+	@Nullable
+	private static SeasonFlightEvents.FertilityDenials denialEvent;
+	@Nullable
+	private static Level denialLevel;
+
 	@OnlyIn(Dist.CLIENT)
 	@SubscribeEvent
 	public static void onItemTooltipAdded(ItemTooltipEvent event)
@@ -35,92 +41,164 @@ public class SeasonalCropGrowthHandler
 	public static void onTagsUpdated(TagsUpdatedEvent event)
 	{
 		ModFertility.populate();
+		GreenhouseIndex.invalidateAll();
 	}
 
 	@SubscribeEvent
 	public static void onCropGrowth(BlockEvent.CropGrowEvent event)
+	{
+		long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.CROP_GROWTH, event.getLevel());
+		applyCropGrowthBehavior(event);
+		SeasonMetrics.stop(SeasonMetrics.Probe.CROP_GROWTH, event.getLevel(), metricsStart);
+	}
+
+	private static void applyCropGrowthBehavior(BlockEvent.CropGrowEvent event)
 	{
 		BlockState plant = event.getState();
-		Block plantBlock = plant.getBlock();
 		Level level = (Level)event.getLevel();
-		Registry<Block> blockRegistry = level.registryAccess().registryOrThrow(Registries.BLOCK);
-		boolean isFertile = ModFertility.isCropFertile(blockRegistry.getKey(plantBlock).toString(), level, event.getPos());
-		
-		if (FertilityConfig.seasonalCrops.get() && !isFertile && !isGlassAboveBlock(level, event.getPos()))
+		BlockPos pos = event.getPos();
+
+		if (!isOutOfSeason(level, pos, plant))
+			return;
+
+		int behavior = FertilityConfig.outOfSeasonCropBehavior.get();
+
+		if (behavior == 0)
 		{
-			if (FertilityConfig.outOfSeasonCropBehavior.get() == 0)
+			if (level.getRandom().nextInt(6) != 0)
+			{
+				event.setResult(Event.Result.DENY);
+				recordDenial(level, false, false);
+			}
+		}
+		else if (behavior == 1)
+		{
+			event.setResult(Event.Result.DENY);
+			recordDenial(level, false, false);
+		}
+		else if (behavior == 2)
+		{
+			event.setResult(Event.Result.DENY);
+			boolean destroyed = false;
+
+			if (!plant.is(ModTags.Blocks.UNBREAKABLE_INFERTILE_CROPS))
 			{
-				if (level.getRandom().nextInt(6) != 0)
-				{
-					event.setResult(Event.Result.DENY);
-				}
+				level.destroyBlock(pos, false);
+				destroyed = true;
 			}
-		    if (FertilityConfig.outOfSeasonCropBehavior.get() == 1)
-            {
-                event.setResult(Event.Result.DENY);
-            }
-		    if (FertilityConfig.outOfSeasonCropBehavior.get() == 2)
-            {
-                if (!plant.is(ModTags.Blocks.UNBREAKABLE_INFERTILE_CROPS))
-                {
-					event.setResult(Event.Result.DENY);
-                    event.getLevel().destroyBlock(event.getPos(), false);
-                }
-                else
-                {
-                    event.setResult(Event.Result.DENY);
-                }
-            }
+
+			recordDenial(level, false, destroyed);
 		}
 	}
 
 	@SubscribeEvent
 	public static void onApplyBonemeal(BonemealEvent event)
+	{
+		long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.BONEMEAL, event.getLevel());
+		applyBonemealBehavior(event);
+		SeasonMetrics.stop(SeasonMetrics.Probe.BONEMEAL, event.getLevel(), metricsStart);
+	}
+
+	private static void applyBonemealBehavior(BonemealEvent event)
 	{
 		BlockState plant = event.getBlock();
-		Block plantBlock = plant.getBlock();
 		Level level = event.getLevel();
-		Registry<Block> blockRegistry = level.registryAccess().registryOrThrow(Registries.BLOCK);
-		boolean isFertile = ModFertility.isCropFertile(blockRegistry.getKey(plantBlock).toString(), level, event.getPos());
-		
-		if (FertilityConfig.seasonalCrops.get() && !isFertile && !isGlassAboveBlock(level, event.getPos()))
+		BlockPos pos = event.getPos();
+
+		if (!isOutOfSeason(level, pos, plant))
+			return;
+
+		int behavior = FertilityConfig.outOfSeasonCropBehavior.get();
+
+		// Bonemeal still applies under the first behavior, so only cancelled uses are recorded
+		if (behavior == 0)
 		{
-			if (FertilityConfig.outOfSeasonCropBehavior.get() == 0)
+			if (level.getRandom().nextInt(6) != 0)
 			{
-				if (level.getRandom().nextInt(6) != 0)
-				{
-					event.setResult(Event.Result.DEFAULT);
-				}
+				event.setResult(Event.Result.DEFAULT);
 			}
-            if (FertilityConfig.outOfSeasonCropBehavior.get() == 1)
-            {
-                event.setCanceled(true);
-            }
-            if (FertilityConfig.outOfSeasonCropBehavior.get() == 2)
-            {
-                if (!plant.is(ModTags.Blocks.UNBREAKABLE_INFERTILE_CROPS))
-                {
-					event.setCanceled(true);
-                    level.destroyBlock(event.getPos(), false);
-                }
-                else
-                {
-                    event.setCanceled(true);
-                }
-            }
+		}
+		else if (behavior == 1)
+		{
+			event.setCanceled(true);
+			recordDenial(level, true, false);
+		}
+		else if (behavior == 2)
+		{
+			event.setCanceled(true);
+			boolean destroyed = false;
+
+			if (!plant.is(ModTags.Blocks.UNBREAKABLE_INFERTILE_CROPS))
+			{
+				level.destroyBlock(pos, false);
+				destroyed = true;
+			}
+
+			recordDenial(level, true, destroyed);
 		}
 	}
 
-	private static boolean isGlassAboveBlock(Level world, BlockPos cropPos)
+	private static void recordDenial(Level level, boolean bonemeal, boolean destroyed)
 	{
-		for (int i = 0; i < 16; i++)
+		if (level.isClientSide)
+			return;
+
+		// Denials are batched per level, so commit those from any other level first
+		if (denialEvent != null && denialLevel != level)
 		{
-			if (world.getBlockState(cropPos.offset(0, i + 1, 0)).is(ModTags.Blocks.GREENHOUSE_GLASS))
-			{
-				return true;
-			}
+			commitDenials();
+		}
+
+		if (denialEvent == null)
+		{
+			if (!SeasonFlightEvents.FERTILITY_DENIALS.isEnabled())
+				return;
+
+			SeasonFlightEvents.FertilityDenials newEvent = new SeasonFlightEvents.FertilityDenials();
+			newEvent.begin();
+			denialEvent = newEvent;
+			denialLevel = level;
+		}
+
+		if (bonemeal) denialEvent.bonemealDenied++;
+		else denialEvent.growthDenied++;
+
+		if (destroyed) denialEvent.cropsDestroyed++;
+	}
+
+	@SubscribeEvent
+	public static void onLevelTick(TickEvent.LevelTickEvent event)
+	{
+		if (event.phase == TickEvent.Phase.END && denialEvent != null && denialLevel == event.level)
+		{
+			commitDenials();
+		}
+	}
+
+	private static void commitDenials()
+	{
+		SeasonFlightEvents.FertilityDenials event = denialEvent;
+		Level level = denialLevel;
+		denialEvent = null;
+		denialLevel = null;
+
+		event.end();
+
+		if (event.shouldCommit())
+		{
+			event.dimension = level.dimension().location().toString();
+			event.commit();
 		}
-		
-		return false;
+	}
+
+	private static boolean isOutOfSeason(Level level, BlockPos pos, BlockState plant)
+	{
+		// Ordered from cheapest to most expensive so later checks are skipped where possible
+		return FertilityConfig.seasonalCrops.get() && !ModFertility.isCropFertile(plant.getBlock(), level, pos) && !isGlassAboveBlock(level, pos);
+	}
+
+	private static boolean isGlassAboveBlock(Level world, BlockPos cropPos)
+	{
+		return GreenhouseIndex.get(world.getChunkAt(cropPos)).isCovered(cropPos);
 	}
 }
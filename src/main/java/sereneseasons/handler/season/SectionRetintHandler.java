@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.handler.season;
+
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.renderer.LevelRenderer;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+/**
+ * Re-renders chunk sections a few at a time, nearest to the camera first, so that colour changes don't
+ * cause every section to be rebuilt in the same frame.
+ */
+@OnlyIn(Dist.CLIENT)
+public class SectionRetintHandler
+{
+    // Section offsets from the camera within the render distance, sorted by distance
+    private static long[] offsets;
+    private static int offsetsRadius = -1;
+    private static int offsetsHeight = -1;
+
+    private static int cameraSectionX;
+    private static int cameraSectionY;
+    private static int cameraSectionZ;
+    private static int cursor;
+
+    /**
+     * Clears the cached tints of the current level and queues every section in view to be re-rendered.
+     */
+    public static void retintAll()
+    {
+        Minecraft minecraft = Minecraft.getInstance();
+        ClientLevel level = minecraft.level;
+
+        if (level == null)
+            return;
+
+        // Tints are cached per chunk, and would otherwise be reused when the sections are rebuilt
+        level.clearTintCaches();
+
+        int radius = minecraft.options.getEffectiveRenderDistance();
+        int height = level.getSectionsCount();
+
+        if (offsets == null || radius != offsetsRadius || height != offsetsHeight)
+        {
+            offsets = createOffsets(radius, height);
+            offsetsRadius = radius;
+            offsetsHeight = height;
+        }
+
+        Vec3 cameraPos = minecraft.gameRenderer.getMainCamera().getPosition();
+        cameraSectionX = SectionPos.blockToSectionCoord(Mth.floor(cameraPos.x));
+        cameraSectionY = SectionPos.blockToSectionCoord(Mth.floor(cameraPos.y));
+        cameraSectionZ = SectionPos.blockToSectionCoord(Mth.floor(cameraPos.z));
+        cursor = 0;
+    }
+
+    /**
+     * Re-renders up to the given number of queued sections.
+     */
+    public static void retintQueued(int budget)
+    {
+        if (offsets == null || cursor >= offsets.length)
+            return;
+
+        Minecraft minecraft = Minecraft.getInstance();
+        ClientLevel level = minecraft.level;
+
+        if (level == null)
+        {
+            cursor = offsets.length;
+            return;
+        }
+
+        LevelRenderer levelRenderer = minecraft.levelRenderer;
+        int minSection = level.getMinSection();
+        int maxSection = level.getMaxSection();
+
+        for (int retinted = 0; retinted < budget && cursor < offsets.length; cursor++)
+        {
+            long offset = offsets[cursor];
+            int sectionY = cameraSectionY + SectionPos.y(offset);
+
+            if (sectionY < minSection || sectionY >= maxSection)
+                continue;
+
+            levelRenderer.setSectionDirty(cameraSectionX + SectionPos.x(offset), sectionY, cameraSectionZ + SectionPos.z(offset));
+            retinted++;
+        }
+    }
+
+    private static long[] createOffsets(int radius, int height)
+    {
+        // The camera may be anywhere vertically, so cover the full height of the level both above and below it
+        int diameter = radius * 2 + 1;
+        long[] result = new long[diameter * diameter * (height * 2 - 1)];
+        int index = 0;
+
+        for (int x = -radius; x <= radius; x++)
+        {
+            for (int y = -(height - 1); y <= height - 1; y++)
+            {
+                for (int z = -radius; z <= radius; z++)
+                {
+                    result[index++] = SectionPos.asLong(x, y, z);
+                }
+            }
+        }
+
+        LongArrays.quickSort(result, (a, b) -> Integer.compare(getDistanceSqr(a), getDistanceSqr(b)));
+        return result;
+    }
+
+    private static int getDistanceSqr(long offset)
+    {
+        int x = SectionPos.x(offset);
+        int y = SectionPos.y(offset);
+        int z = SectionPos.z(offset);
+
+        return x * x + y * y + z * z;
+    }
+}
@@ -51,6 +51,7 @@ public class TimeSkipHandler
             {
                 SeasonSavedData seasonData = SeasonHandler.getSeasonSavedData(world);
                 seasonData.seasonCycleTicks += difference;
+                seasonData.elapsedTicks += difference;
                 seasonData.setDirty();
                 SeasonHandler.sendSeasonUpdate(world);
                 // Really this should be uncommented, but apparently other mods do bullshit things that cause this to get spammed.
@@ -7,7 +7,10 @@ package sereneseasons.init;
 import net.minecraft.core.Holder;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraftforge.fml.ModLoadingContext;
+import net.minecraftforge.fml.event.config.ModConfigEvent;
+import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import net.minecraftforge.fml.loading.FMLPaths;
+import sereneseasons.config.ClientConfig;
 import sereneseasons.config.FertilityConfig;
 import sereneseasons.config.SeasonsConfig;
 import sereneseasons.config.ServerConfig;
@@ -39,5 +42,30 @@ public class ModConfig
         ModLoadingContext.get().registerConfig(net.minecraftforge.fml.config.ModConfig.Type.COMMON, FertilityConfig.SPEC, "sereneseasons/fertility.toml");
         ModLoadingContext.get().registerConfig(net.minecraftforge.fml.config.ModConfig.Type.COMMON, SeasonsConfig.SPEC, "sereneseasons/seasons.toml");
         ModLoadingContext.get().registerConfig(net.minecraftforge.fml.config.ModConfig.Type.SERVER, ServerConfig.SPEC, "sereneseasons-server.toml");
+        ModLoadingContext.get().registerConfig(net.minecraftforge.fml.config.ModConfig.Type.CLIENT, ClientConfig.SPEC, "sereneseasons/client.toml");
+
+        FMLJavaModLoadingContext.get().getModEventBus().addListener(ModConfig::onConfigLoading);
+        FMLJavaModLoadingContext.get().getModEventBus().addListener(ModConfig::onConfigReloading);
+    }
+
+    private static void onConfigLoading(ModConfigEvent.Loading event)
+    {
+        if (event.getConfig().getSpec() == ServerConfig.SPEC)
+        {
+            ServerConfig.onConfigLoaded();
+        }
+    }
+
+    private static void onConfigReloading(ModConfigEvent.Reloading event)
+    {
+        onConfigChanged(event.getConfig());
+    }
+
+    private static void onConfigChanged(net.minecraftforge.fml.config.ModConfig config)
+    {
+        if (config.getSpec() == ServerConfig.SPEC)
+        {
+            ServerConfig.onConfigChanged();
+        }
     }
 }
@@ -1,11 +1,14 @@
 package sereneseasons.init;
 
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.tags.TagKey;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.level.Level;
@@ -16,124 +19,167 @@ import sereneseasons.api.season.Season;
 import sereneseasons.api.season.SeasonHelper;
 import sereneseasons.config.FertilityConfig;
 import sereneseasons.config.ServerConfig;
+import sereneseasons.season.BiomeSeasonTable;
+import sereneseasons.util.SeasonMetrics;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Optional;
-import java.util.Set;
 
 /**
  * Constructs efficient data structures to process, store, and give access to data from the FertilityConfig file
  */
 public class ModFertility
 {
-    private static Set<String> springPlants = new HashSet<>();
-    private static Set<String> summerPlants = new HashSet<>();
-    private static Set<String> autumnPlants = new HashSet<>();
-    private static Set<String> winterPlants = new HashSet<>();
-    private static Set<String> allListedPlants = new HashSet<>();
-
     //Maps seed name to all fertile seasons via byte
-    private static HashMap<String, Integer> seedSeasons = new HashMap<String, Integer>();
+    private static volatile HashMap<String, Integer> seedSeasons = new HashMap<String, Integer>();
+
+    //Fertile seasons of each listed block and item, using the same encoding as seedSeasons. Unlisted entries are 0
+    private static volatile Reference2IntMap<Block> blockSeasons = new Reference2IntOpenHashMap<>();
+    private static volatile Reference2IntMap<Item> itemSeasons = new Reference2IntOpenHashMap<>();
+
+    //Fertility of every crop mask, indexed by bit. For temperate biomes the upper half is used in biomes too cold for rain
+    private static final int COLD_VERDICT_SHIFT = 16;
+    private static final int TROPICAL_VERDICTS = computeVerdicts(Season.SUMMER, true);
+    private static final int[] TEMPERATE_VERDICTS = new int[Season.values().length];
+
+    static
+    {
+        for (Season season : Season.values())
+        {
+            TEMPERATE_VERDICTS[season.ordinal()] = computeVerdicts(season, false);
+        }
+    }
 
     public static void populate()
     {
-        // Clear sets
-        springPlants.clear();
-        summerPlants.clear();
-        autumnPlants.clear();
-        winterPlants.clear();
-        allListedPlants.clear();
-        seedSeasons.clear();
-
-
-        //Store crops in hash sets for quick and easy retrieval
-        populateSeasonCrops(ModTags.Blocks.SPRING_CROPS, springPlants, 1);
-        populateSeasonCrops(ModTags.Blocks.SUMMER_CROPS, summerPlants, 2);
-        populateSeasonCrops(ModTags.Blocks.AUTUMN_CROPS, autumnPlants, 4);
-        populateSeasonCrops(ModTags.Blocks.WINTER_CROPS, winterPlants, 8);
-
-        populateSeasonSeeds(ModTags.Items.SPRING_CROPS, springPlants, 1);
-        populateSeasonSeeds(ModTags.Items.SUMMER_CROPS, summerPlants, 2);
-        populateSeasonSeeds(ModTags.Items.AUTUMN_CROPS, autumnPlants, 4);
-        populateSeasonSeeds(ModTags.Items.WINTER_CROPS, winterPlants, 8);
+        HashMap<String, Integer> newSeedSeasons = new HashMap<>();
+
+        //Blocks and items share names, so both contribute to the seasons of each name
+        populateSeasonCrops(ModTags.Blocks.SPRING_CROPS, newSeedSeasons, 1);
+        populateSeasonCrops(ModTags.Blocks.SUMMER_CROPS, newSeedSeasons, 2);
+        populateSeasonCrops(ModTags.Blocks.AUTUMN_CROPS, newSeedSeasons, 4);
+        populateSeasonCrops(ModTags.Blocks.WINTER_CROPS, newSeedSeasons, 8);
+
+        populateSeasonSeeds(ModTags.Items.SPRING_CROPS, newSeedSeasons, 1);
+        populateSeasonSeeds(ModTags.Items.SUMMER_CROPS, newSeedSeasons, 2);
+        populateSeasonSeeds(ModTags.Items.AUTUMN_CROPS, newSeedSeasons, 4);
+        populateSeasonSeeds(ModTags.Items.WINTER_CROPS, newSeedSeasons, 8);
+
+        //Resolve the names once so lookups don't need to build them
+        Reference2IntOpenHashMap<Block> newBlockSeasons = new Reference2IntOpenHashMap<>();
+        Reference2IntOpenHashMap<Item> newItemSeasons = new Reference2IntOpenHashMap<>();
+
+        newSeedSeasons.forEach((name, seasons) ->
+        {
+            ResourceLocation location = ResourceLocation.tryParse(name);
+
+            if (location == null)
+                return;
+
+            BuiltInRegistries.BLOCK.getOptional(location).ifPresent(block -> newBlockSeasons.put(block, (int)seasons));
+            BuiltInRegistries.ITEM.getOptional(location).ifPresent(item -> newItemSeasons.put(item, (int)seasons));
+        });
+
+        seedSeasons = newSeedSeasons;
+        blockSeasons = newBlockSeasons;
+        itemSeasons = newItemSeasons;
+    }
+
+    public static boolean isCropFertile(Block crop, Level level, BlockPos pos)
+    {
+        return isCropFertile(getCropSeasons(crop), level, pos);
     }
 
     public static boolean isCropFertile(String cropName, Level level, BlockPos pos)
     {
-        //Get season
-        Season season = SeasonHelper.getSeasonState(level).getSeason();
+        return isCropFertile(seedSeasons.getOrDefault(cropName, 0), level, pos);
+    }
+
+    private static boolean isCropFertile(int cropSeasons, Level level, BlockPos pos)
+    {
+        long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.FERTILITY_CHECK, level);
+        boolean fertile = isCropFertileAt(cropSeasons, level, pos);
+        SeasonMetrics.stop(SeasonMetrics.Probe.FERTILITY_CHECK, level, metricsStart);
+        SeasonMetrics.count(fertile ? SeasonMetrics.Counter.FERTILE_CHECKS : SeasonMetrics.Counter.INFERTILE_CHECKS, level, 1);
+        return fertile;
+    }
+
+    private static boolean isCropFertileAt(int cropSeasons, Level level, BlockPos pos)
+    {
         Holder<Biome> biome = level.getBiome(pos);
+        int biomeFlags = BiomeSeasonTable.getFlags(biome);
+        boolean fertile;
 
-        if (pos.getY() < FertilityConfig.undergroundFertilityLevel.get() && !level.canSeeSky(pos))
+        if ((biomeFlags & BiomeSeasonTable.INFERTILE) != 0)
         {
-            return true;
+            fertile = false;
         }
-
-        if (biome.is(ModTags.Biomes.INFERTILE_BIOMES))
+        else if (!FertilityConfig.seasonalCrops.get() || (biomeFlags & BiomeSeasonTable.BLACKLISTED) != 0 || !ServerConfig.isDimensionWhitelisted(level.dimension()))
         {
-            return false;
+            fertile = true;
         }
-        else if (!FertilityConfig.seasonalCrops.get() || biome.is(ModTags.Biomes.BLACKLISTED_BIOMES) || !ServerConfig.isDimensionWhitelisted(level.dimension()))
+        else
         {
-            return true;
+            fertile = isCropFertileInSeason(cropSeasons, biomeFlags, SeasonHelper.getSeasonState(level).getSeason(), biome, pos);
         }
 
-        if (biome.is(ModTags.Biomes.TROPICAL_BIOMES))
+        //Crops underground are always fertile, so the sky only needs checking if they otherwise wouldn't be
+        return fertile || (pos.getY() < FertilityConfig.undergroundFertilityLevel.get() && !level.canSeeSky(pos));
+    }
+
+    /**
+     * Gets the fertile seasons of a crop, encoded as a bitmask of season ordinals. Unlisted crops are 0
+     */
+    public static int getCropSeasons(Block crop)
+    {
+        return blockSeasons.getInt(crop);
+    }
+
+    /**
+     * Gets whether a crop with the given seasons is fertile in a biome affected by seasons, ignoring whether it is underground
+     */
+    public static boolean isCropFertileInSeason(int cropSeasons, int biomeFlags, Season season, Holder<Biome> biome, BlockPos pos)
+    {
+        if ((biomeFlags & BiomeSeasonTable.TROPICAL) != 0)
         {
-            if (summerPlants.contains(cropName) || !(allListedPlants.contains(cropName)))
-            {
-                return true;
-            }
-            else
-            {
-                return false;
-            }
+            return (TROPICAL_VERDICTS & (1 << cropSeasons)) != 0;
         }
-        else
+
+        int verdicts = TEMPERATE_VERDICTS[season.ordinal()];
+        boolean warmFertile = (verdicts & (1 << cropSeasons)) != 0;
+        boolean coldFertile = (verdicts & (1 << (cropSeasons + COLD_VERDICT_SHIFT))) != 0;
+
+        //Only check the temperature if it affects the outcome
+        return warmFertile == coldFertile ? warmFertile : (biome.value().warmEnoughToRain(pos) ? warmFertile : coldFertile);
+    }
+
+    private static int getSeasonMask(Season season)
+    {
+        return 1 << season.ordinal();
+    }
+
+    private static int computeVerdicts(Season season, boolean tropical)
+    {
+        int verdicts = 0;
+
+        for (int cropSeasons = 0; cropSeasons < 16; cropSeasons++)
         {
-            if (!biome.value().warmEnoughToRain(pos))
+            //Unlisted crops are fertile in every season, except in biomes too cold for rain where only winter crops grow
+            if (tropical)
             {
-                if (winterPlants.contains(cropName))
-                {
-                    return true;
-                }
-                else
-                {
-                    return false;
-                }
+                if (cropSeasons == 0 || (cropSeasons & getSeasonMask(Season.SUMMER)) != 0) verdicts |= 1 << cropSeasons;
             }
             else
             {
-                if (season == Season.SPRING && springPlants.contains(cropName))
-                {
-                    return true;
-                }
-                else if (season == Season.SUMMER && summerPlants.contains(cropName))
-                {
-                    return true;
-                }
-                else if (season == Season.AUTUMN && autumnPlants.contains(cropName))
-                {
-                    return true;
-                }
-                else if (season == Season.WINTER && winterPlants.contains(cropName))
-                {
-                    return true;
-                }
-
-                //Check if unspecified crops are by default fertile in non-winter, and that it's not winter
-                if (!allListedPlants.contains(cropName))
-                {
-                    return true;
-                }
+                if (cropSeasons == 0 || (cropSeasons & getSeasonMask(season)) != 0) verdicts |= 1 << cropSeasons;
+                if ((cropSeasons & getSeasonMask(Season.WINTER)) != 0) verdicts |= 1 << (cropSeasons + COLD_VERDICT_SHIFT);
             }
         }
 
-        return false;
+        return verdicts;
     }
 
-    private static void populateSeasonCrops(TagKey<Block> tag, Set<String> cropSet, int bitmask)
+    private static void populateSeasonCrops(TagKey<Block> tag, HashMap<String, Integer> seasons, int bitmask)
     {
         BuiltInRegistries.BLOCK.getTag(tag).ifPresent(blocks ->
         {
@@ -144,33 +190,12 @@ public class ModFertility
                 if (blockKey.isEmpty())
                     continue;
 
-                String plantName = blockKey.get().location().toString();
-                cropSet.add(plantName);
-
-                if (bitmask != 0)
-                {
-                    allListedPlants.add(plantName);
-                }
-                else
-                {
-                    continue;
-                }
-
-                //Add to seedSeasons
-                if (seedSeasons.containsKey(plantName))
-                {
-                    int seasons = seedSeasons.get(plantName);
-                    seedSeasons.put(plantName, seasons | bitmask);
-                }
-                else
-                {
-                    seedSeasons.put(plantName, bitmask);
-                }
+                seasons.merge(blockKey.get().location().toString(), bitmask, (a, b) -> a | b);
             }
         });
     }
 
-    private static void populateSeasonSeeds(TagKey<Item> tag, Set<String> cropSet, int bitmask)
+    private static void populateSeasonSeeds(TagKey<Item> tag, HashMap<String, Integer> seasons, int bitmask)
     {
         BuiltInRegistries.ITEM.getTag(tag).ifPresent(items ->
         {
@@ -181,28 +206,7 @@ public class ModFertility
                 if (itemKey.isEmpty())
                     continue;
 
-                String plantName = itemKey.get().location().toString();
-                cropSet.add(plantName);
-
-                if (bitmask != 0)
-                {
-                    allListedPlants.add(plantName);
-                }
-                else
-                {
-                    continue;
-                }
-
-                //Add to seedSeasons
-                if (seedSeasons.containsKey(plantName))
-                {
-                    int seasons = seedSeasons.get(plantName);
-                    seedSeasons.put(plantName, seasons | bitmask);
-                }
-                else
-                {
-                    seedSeasons.put(plantName, bitmask);
-                }
+                seasons.merge(itemKey.get().location().toString(), bitmask, (a, b) -> a | b);
             }
         });
     }
@@ -212,11 +216,10 @@ public class ModFertility
         //Set up tooltips if enabled and on client side
         if (FertilityConfig.cropTooltips.get() && FertilityConfig.seasonalCrops.get())
         {
-            String name = BuiltInRegistries.ITEM.getKey(event.getItemStack().getItem()).toString();
-            if (seedSeasons.containsKey(name))
-            {
-                int mask = seedSeasons.get(name);
+            int mask = itemSeasons.getInt(event.getItemStack().getItem());
 
+            if (mask != 0)
+            {
                 event.getToolTip().add(Component.translatable("desc.sereneseasons.fertile_seasons").append(":"));
 
                 if ((mask & 1) != 0 && (mask & 2) != 0 && (mask & 4) != 0 && (mask & 8) != 0)
@@ -5,6 +5,7 @@
 package sereneseasons.init;
 
 import net.minecraft.world.level.GameRules;
+import sereneseasons.handler.season.SeasonHandler;
 
 import static net.minecraft.world.level.GameRules.register;
 import static sereneseasons.api.SSGameRules.*;
@@ -13,6 +14,6 @@ public class ModGameRules
 {
     public static void init()
     {
-        RULE_DOSEASONCYCLE = register("doSeasonCycle", GameRules.Category.UPDATES, GameRules.BooleanValue.create(true));
+        RULE_DOSEASONCYCLE = register("doSeasonCycle", GameRules.Category.UPDATES, GameRules.BooleanValue.create(true, SeasonHandler::onSeasonCycleRuleChanged));
     }
 }
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright 2022, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.mixin;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import sereneseasons.season.GreenhouseIndex;
+import sereneseasons.season.ISeasonalChunk;
+import sereneseasons.season.MeltIndex;
+
+@Mixin(LevelChunk.class)
+public abstract class MixinLevelChunk implements ISeasonalChunk
+{
+    @Unique
+    private MeltIndex meltIndex;
+
+    @Unique
+    private GreenhouseIndex greenhouseIndex;
+
+    @Inject(method="setBlockState", at=@At(value="RETURN"))
+    public void onSetBlockState(BlockPos pos, BlockState state, boolean isMoving, CallbackInfoReturnable<BlockState> cir)
+    {
+        BlockState oldState = cir.getReturnValue();
+
+        // A null return value indicates nothing changed
+        if (oldState == null)
+            return;
+
+        if (this.meltIndex != null)
+        {
+            this.meltIndex.onBlockChanged((LevelChunk)(Object)this, pos, state);
+        }
+
+        if (this.greenhouseIndex != null)
+        {
+            this.greenhouseIndex.onBlockChanged(pos, oldState, state);
+        }
+    }
+
+    @Override
+    public MeltIndex getMeltIndex()
+    {
+        return this.meltIndex;
+    }
+
+    @Override
+    public void setMeltIndex(MeltIndex index)
+    {
+        this.meltIndex = index;
+    }
+
+    @Override
+    public GreenhouseIndex getGreenhouseIndex()
+    {
+        return this.greenhouseIndex;
+    }
+
+    @Override
+    public void setGreenhouseIndex(GreenhouseIndex index)
+    {
+        this.greenhouseIndex = index;
+    }
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.network.message;
+
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.network.CustomPayloadEvent;
+import sereneseasons.handler.season.SeasonHandler;
+
+import java.util.List;
+
+/**
+ * Tells the client which dimension each id used by {@link MessageSyncSeasonCycle} refers to.
+ */
+public class MessageSyncDimensionIds
+{
+    public List<ResourceKey<Level>> dimensions;
+
+    public MessageSyncDimensionIds() {}
+
+    public MessageSyncDimensionIds(List<ResourceKey<Level>> dimensions)
+    {
+        this.dimensions = dimensions;
+    }
+
+    public static void encode(MessageSyncDimensionIds packet, FriendlyByteBuf buf)
+    {
+        buf.writeCollection(packet.dimensions, FriendlyByteBuf::writeResourceKey);
+    }
+
+    public static MessageSyncDimensionIds decode(FriendlyByteBuf buf)
+    {
+        return new MessageSyncDimensionIds(buf.readList(b -> b.readResourceKey(Registries.DIMENSION)));
+    }
+
+    public static class Handler
+    {
+        public static void handle(final MessageSyncDimensionIds packet, CustomPayloadEvent.Context context)
+        {
+            context.enqueueWork(() -> SeasonHandler.setClientDimensionIds(packet.dimensions));
+            context.setPacketHandled(true);
+        }
+    }
+}
@@ -5,36 +5,100 @@
 package sereneseasons.network.message;
 
 import net.minecraft.client.Minecraft;
-import net.minecraft.core.registries.Registries;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceKey;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.Level;
 import net.minecraftforge.event.network.CustomPayloadEvent;
 import sereneseasons.handler.season.SeasonHandler;
+import sereneseasons.season.SeasonTime;
 
+/**
+ * Syncs the season cycle of a dimension to its players. Dimensions are identified by the ids sent in
+ * {@link MessageSyncDimensionIds}, and periodic updates only carry the change since the previous update.
+ */
 public class MessageSyncSeasonCycle
 {
-    public ResourceKey<Level> dimension;
+    public int dimensionId;
+    public boolean full;
+    // Whether the season cycle isn't progressing, in which case the client shouldn't advance it either
+    public boolean paused;
     public int seasonCycleTicks;
-    
+    // The season cycle ticks later deltas for the dimension are relative to
+    public int baseSeasonCycleTicks;
+    public int delta;
+
     public MessageSyncSeasonCycle() {}
-    
-    public MessageSyncSeasonCycle(ResourceKey<Level> dimension, int seasonCycleTicks)
+
+    private MessageSyncSeasonCycle(int dimensionId, boolean full, boolean paused, int seasonCycleTicks, int baseSeasonCycleTicks, int delta)
     {
-        this.dimension = dimension;
+        this.dimensionId = dimensionId;
+        this.full = full;
+        this.paused = paused;
         this.seasonCycleTicks = seasonCycleTicks;
+        this.baseSeasonCycleTicks = baseSeasonCycleTicks;
+        this.delta = delta;
+    }
+
+    public static MessageSyncSeasonCycle full(int dimensionId, boolean paused, int seasonCycleTicks, int baseSeasonCycleTicks)
+    {
+        return new MessageSyncSeasonCycle(dimensionId, true, paused, seasonCycleTicks, baseSeasonCycleTicks, 0);
+    }
+
+    public static MessageSyncSeasonCycle delta(int dimensionId, boolean paused, int delta)
+    {
+        return new MessageSyncSeasonCycle(dimensionId, false, paused, 0, 0, delta);
     }
 
     public static void encode(MessageSyncSeasonCycle packet, FriendlyByteBuf buf)
     {
-        buf.writeUtf(packet.dimension.location().toString());
-        buf.writeInt(packet.seasonCycleTicks);
+        buf.writeVarInt(packet.dimensionId << 2 | (packet.paused ? 2 : 0) | (packet.full ? 1 : 0));
+
+        if (packet.full)
+        {
+            buf.writeVarInt(packet.seasonCycleTicks);
+            buf.writeVarInt(packet.baseSeasonCycleTicks);
+        }
+        else
+        {
+            // Zigzag encode so small negative deltas stay small
+            buf.writeVarInt((packet.delta << 1) ^ (packet.delta >> 31));
+        }
     }
 
     public static MessageSyncSeasonCycle decode(FriendlyByteBuf buf)
     {
-        return new MessageSyncSeasonCycle(ResourceKey.create(Registries.DIMENSION, new ResourceLocation(buf.readUtf())), buf.readInt());
+        int header = buf.readVarInt();
+        int dimensionId = header >>> 2;
+        boolean paused = (header & 2) != 0;
+
+        if ((header & 1) != 0)
+        {
+            return full(dimensionId, paused, buf.readVarInt(), buf.readVarInt());
+        }
+
+        int zigzag = buf.readVarInt();
+        return delta(dimensionId, paused, (zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    private static int getCyclePeriod()
+    {
+        // Season cycle ticks run from 0 to the cycle duration inclusive
+        return SeasonTime.ZERO.getCycleDuration() + 1;
+    }
+
+    /**
+     * Gets the shortest change in season cycle ticks between two times, accounting for the cycle wrapping around.
+     */
+    public static int getCycleDelta(int from, int to)
+    {
+        int period = getCyclePeriod();
+        int half = period / 2;
+        return Math.floorMod(to - from + half, period) - half;
+    }
+
+    public static int applyCycleDelta(int from, int delta)
+    {
+        return Math.floorMod(from + delta, getCyclePeriod());
     }
 
     public static class Handler
@@ -44,11 +108,17 @@ public class MessageSyncSeasonCycle
             context.enqueueWork(() ->
             {
                 if (Minecraft.getInstance().player == null) return;
-                ResourceKey<Level> playerDimension = Minecraft.getInstance().player.level().dimension();
+                ResourceKey<Level> dimension = SeasonHandler.getClientDimension(packet.dimensionId);
 
-                if (playerDimension.equals(packet.dimension))
+                if (dimension == null || !Minecraft.getInstance().player.level().dimension().equals(dimension)) return;
+
+                if (packet.full)
+                {
+                    SeasonHandler.clientSeasonClock.syncFull(dimension, packet.seasonCycleTicks, packet.baseSeasonCycleTicks, packet.paused);
+                }
+                else
                 {
-                    SeasonHandler.clientSeasonCycleTicks.replace(playerDimension, packet.seasonCycleTicks);
+                    SeasonHandler.clientSeasonClock.syncDelta(dimension, packet.delta, packet.paused);
                 }
             });
             context.setPacketHandled(true);
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.biome.Biome;
+import sereneseasons.api.season.Season;
+import sereneseasons.api.season.SeasonHelper;
+import sereneseasons.init.ModTags;
+
+/**
+ * A dense table of seasonal biome data indexed by biome registry id, so that hot paths
+ * don't need to perform tag lookups. Tables are rebuilt whenever tags are updated.
+ */
+public final class BiomeSeasonTable
+{
+    // Flags classifying how seasons affect a biome, derived from its tags
+    public static final int BLACKLISTED = SeasonHelper.BIOME_BLACKLISTED;
+    public static final int TROPICAL = SeasonHelper.BIOME_TROPICAL;
+    public static final int INFERTILE = SeasonHelper.BIOME_INFERTILE;
+    public static final int LESSER_COLOR_CHANGE = SeasonHelper.BIOME_LESSER_COLOR_CHANGE;
+
+    // Temperature reductions applied to temperate biomes, indexed by sub season ordinal
+    private static final float[] SUB_SEASON_TEMPERATURE_OFFSETS = new float[] {
+        0.4F, 0.2F, 0.1F, // Spring
+        0.0F, 0.0F, 0.0F, // Summer
+        0.1F, 0.2F, 0.4F, // Autumn
+        0.8F, 0.8F, 0.8F  // Winter
+    };
+
+    private static final int SUB_SEASON_COUNT = Season.SubSeason.VALUES.length;
+
+    // Tables are read from the render threads so must be safely published
+    private static volatile BiomeSeasonTable serverTable;
+    private static volatile BiomeSeasonTable clientTable;
+
+    // Incremented whenever a table is rebuilt, so data derived from the tables knows when to refresh
+    private static volatile int generation;
+
+    private final Registry<Biome> registry;
+    private final int size;
+    private final int[] flags;
+    private final float[] temperatureOffsets;
+
+    private BiomeSeasonTable(Registry<Biome> registry)
+    {
+        this.registry = registry;
+        this.size = registry.size();
+        this.flags = new int[this.size];
+        this.temperatureOffsets = new float[this.size * SUB_SEASON_COUNT];
+
+        registry.holders().forEach(biome ->
+        {
+            int id = registry.getId(biome.value());
+
+            if (id < 0 || id >= this.size)
+                return;
+
+            int biomeFlags = computeFlags(biome);
+            this.flags[id] = biomeFlags;
+
+            for (Season.SubSeason subSeason : Season.SubSeason.VALUES)
+            {
+                this.temperatureOffsets[id * SUB_SEASON_COUNT + subSeason.ordinal()] = computeTemperatureOffset(biomeFlags, biome.value(), subSeason);
+            }
+        });
+    }
+
+    public static void rebuild(RegistryAccess registryAccess, boolean client)
+    {
+        BiomeSeasonTable table = new BiomeSeasonTable(registryAccess.registryOrThrow(Registries.BIOME));
+
+        if (client) clientTable = table;
+        else serverTable = table;
+
+        generation++;
+    }
+
+    public static int getGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Gets the flags for a biome, a combination of those in this class, falling back to checking its tags if the biome isn't present in either table.
+     */
+    public static int getFlags(Holder<Biome> biome)
+    {
+        Biome value = biome.value();
+        BiomeSeasonTable table = serverTable;
+        int id;
+
+        if (table != null && (id = table.getId(value)) >= 0)
+            return table.flags[id];
+
+        table = clientTable;
+
+        if (table != null && (id = table.getId(value)) >= 0)
+            return table.flags[id];
+
+        return computeFlags(biome);
+    }
+
+    /**
+     * Gets the amount the temperature of a biome is reduced by in the given sub season.
+     */
+    public static float getTemperatureOffset(Holder<Biome> biome, Season.SubSeason subSeason)
+    {
+        Biome value = biome.value();
+        BiomeSeasonTable table = serverTable;
+        int id;
+
+        if (table != null && (id = table.getId(value)) >= 0)
+            return table.temperatureOffsets[id * SUB_SEASON_COUNT + subSeason.ordinal()];
+
+        table = clientTable;
+
+        if (table != null && (id = table.getId(value)) >= 0)
+            return table.temperatureOffsets[id * SUB_SEASON_COUNT + subSeason.ordinal()];
+
+        return computeTemperatureOffset(computeFlags(biome), value, subSeason);
+    }
+
+    private int getId(Biome biome)
+    {
+        int id = this.registry.getId(biome);
+        return id < this.size ? id : -1;
+    }
+
+    private static int computeFlags(Holder<Biome> biome)
+    {
+        int flags = 0;
+
+        if (biome.is(ModTags.Biomes.BLACKLISTED_BIOMES)) flags |= BLACKLISTED;
+        if (biome.is(ModTags.Biomes.TROPICAL_BIOMES)) flags |= TROPICAL;
+        if (biome.is(ModTags.Biomes.INFERTILE_BIOMES)) flags |= INFERTILE;
+        if (biome.is(ModTags.Biomes.LESSER_COLOR_CHANGE_BIOMES)) flags |= LESSER_COLOR_CHANGE;
+
+        return flags;
+    }
+
+    private static float computeTemperatureOffset(int flags, Biome biome, Season.SubSeason subSeason)
+    {
+        if ((flags & (BLACKLISTED | TROPICAL)) != 0 || biome.getBaseTemperature() > 0.8F)
+            return 0.0F;
+
+        return SUB_SEASON_TEMPERATURE_OFFSETS[subSeason.ordinal()];
+    }
+}
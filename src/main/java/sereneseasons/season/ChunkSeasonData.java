@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.common.capabilities.AutoRegisterCapability;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.capabilities.CapabilityToken;
+import net.minecraftforge.common.capabilities.ICapabilitySerializable;
+import net.minecraftforge.common.util.LazyOptional;
+import sereneseasons.core.SereneSeasons;
+
+import javax.annotation.Nullable;
+
+/**
+ * Season data persisted alongside each chunk.
+ */
+@AutoRegisterCapability
+public class ChunkSeasonData
+{
+    public static final Capability<ChunkSeasonData> CAPABILITY = CapabilityManager.get(new CapabilityToken<>(){});
+    public static final ResourceLocation ID = new ResourceLocation(SereneSeasons.MOD_ID, "season_data");
+
+    public static final long UNKNOWN = -1L;
+
+    // The level's elapsed season ticks the chunk has been melted up to
+    private long lastMeltTicks = UNKNOWN;
+    private long savedMeltTicks = UNKNOWN;
+    private boolean catchUpPending;
+
+    @Nullable
+    public static ChunkSeasonData get(LevelChunk chunk)
+    {
+        return chunk.getCapability(CAPABILITY).orElse(null);
+    }
+
+    public long getLastMeltTicks()
+    {
+        return this.lastMeltTicks;
+    }
+
+    public void setLastMeltTicks(long ticks)
+    {
+        this.lastMeltTicks = ticks;
+    }
+
+    public boolean isCatchUpPending()
+    {
+        return this.catchUpPending;
+    }
+
+    public void setCatchUpPending(boolean pending)
+    {
+        this.catchUpPending = pending;
+    }
+
+    /**
+     * Whether the data has changed since it was last loaded or saved.
+     */
+    public boolean isDirty()
+    {
+        return this.lastMeltTicks != this.savedMeltTicks;
+    }
+
+    public static class Provider implements ICapabilitySerializable<Tag>
+    {
+        private final ChunkSeasonData data = new ChunkSeasonData();
+        private final LazyOptional<ChunkSeasonData> optional = LazyOptional.of(() -> this.data);
+
+        @Override
+        public <T> LazyOptional<T> getCapability(Capability<T> cap, @Nullable Direction side)
+        {
+            return CAPABILITY.orEmpty(cap, this.optional);
+        }
+
+        @Override
+        public Tag serializeNBT()
+        {
+            this.data.savedMeltTicks = this.data.lastMeltTicks;
+            return LongTag.valueOf(this.data.lastMeltTicks);
+        }
+
+        @Override
+        public void deserializeNBT(Tag nbt)
+        {
+            // Older stamps were positions in the season cycle, which can't be converted, so are treated as unknown
+            this.data.lastMeltTicks = nbt instanceof LongTag longTag ? longTag.getAsLong() : UNKNOWN;
+            this.data.savedMeltTicks = this.data.lastMeltTicks;
+        }
+    }
+}
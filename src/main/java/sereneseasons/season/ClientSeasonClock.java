@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import sereneseasons.api.season.Season;
+import sereneseasons.config.ServerConfig;
+import sereneseasons.network.message.MessageSyncSeasonCycle;
+
+import javax.annotation.Nullable;
+
+/**
+ * The season of the level the client is currently in. The season is advanced every client tick between syncs from
+ * the server, and each change is published as an immutable {@link SeasonSnapshot}. Chunk meshing threads read the
+ * season through the snapshot, so they never see the fields below part way through an update.
+ */
+public final class ClientSeasonClock
+{
+    @Nullable
+    private ResourceKey<Level> dimension;
+    private int seasonCycleTicks;
+    private boolean paused;
+    private boolean synced;
+    // The season cycle ticks deltas from the server are relative to
+    private int syncedSeasonCycleTicks;
+
+    // Only written by the client thread
+    private volatile SeasonSnapshot snapshot;
+    private int snapshotConfigGeneration = -1;
+
+    /**
+     * Begins tracking the season of the given dimension, which is unknown until it is synced from the server.
+     */
+    public void reset(@Nullable ResourceKey<Level> dimension)
+    {
+        this.dimension = dimension;
+        this.paused = false;
+        this.synced = false;
+        this.setSeasonCycleTicks(0);
+    }
+
+    public void tick()
+    {
+        if (this.paused)
+        {
+            // Still pick up changes to the season durations while the season isn't progressing
+            this.setSeasonCycleTicks(this.seasonCycleTicks);
+            return;
+        }
+
+        int ticks = this.seasonCycleTicks + 1;
+
+        if (ticks > SeasonTime.ZERO.getCycleDuration())
+        {
+            ticks = 0;
+        }
+
+        this.setSeasonCycleTicks(ticks);
+    }
+
+    public void syncFull(ResourceKey<Level> dimension, int seasonCycleTicks, int syncedSeasonCycleTicks, boolean paused)
+    {
+        this.dimension = dimension;
+        this.paused = paused;
+        this.synced = true;
+        this.syncedSeasonCycleTicks = syncedSeasonCycleTicks;
+        this.setSeasonCycleTicks(seasonCycleTicks);
+    }
+
+    public void syncDelta(ResourceKey<Level> dimension, int delta, boolean paused)
+    {
+        // Deltas can only be applied once a full update has been received for the dimension
+        if (!this.synced || dimension != this.dimension)
+            return;
+
+        this.paused = paused;
+        this.syncedSeasonCycleTicks = MessageSyncSeasonCycle.applyCycleDelta(this.syncedSeasonCycleTicks, delta);
+        this.setSeasonCycleTicks(this.syncedSeasonCycleTicks);
+    }
+
+    private void setSeasonCycleTicks(int seasonCycleTicks)
+    {
+        SeasonSnapshot snapshot = this.snapshot;
+        int configGeneration = ServerConfig.getGeneration();
+        this.seasonCycleTicks = seasonCycleTicks;
+
+        if (snapshot != null && snapshot.getSeasonCycleTicks() == seasonCycleTicks && this.snapshotConfigGeneration == configGeneration)
+            return;
+
+        this.snapshotConfigGeneration = configGeneration;
+        this.snapshot = new SeasonSnapshot(seasonCycleTicks);
+    }
+
+    @Nullable
+    public ResourceKey<Level> getDimension()
+    {
+        return this.dimension;
+    }
+
+    /**
+     * Gets the most recently published season state. This may be called from any thread.
+     */
+    public SeasonSnapshot getSnapshot()
+    {
+        SeasonSnapshot snapshot = this.snapshot;
+        return snapshot != null ? snapshot : new SeasonSnapshot(0);
+    }
+
+    public Season.SubSeason getSubSeason()
+    {
+        return this.getSnapshot().getSubSeason();
+    }
+}
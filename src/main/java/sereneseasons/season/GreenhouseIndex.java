@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import sereneseasons.init.ModTags;
+
+/**
+ * Records the positions of greenhouse glass in a chunk so crops can check whether they're covered without
+ * scanning the blocks above them. Each section stores 16 bits per column, one for each height in the section,
+ * allowing a column's coverage to be read in one go.
+ */
+public class GreenhouseIndex
+{
+    // How far above a crop greenhouse glass may be
+    public static final int RANGE = 16;
+
+    // Incremented whenever the greenhouse glass tag may have changed, invalidating all existing indexes
+    private static volatile int currentGeneration;
+
+    private final int generation;
+    private final int minSection;
+    private final long[][] sections;
+
+    private GreenhouseIndex(LevelChunk chunk)
+    {
+        this.generation = currentGeneration;
+        this.minSection = chunk.getMinSection();
+        this.sections = new long[chunk.getSectionsCount()][];
+    }
+
+    public static void invalidateAll()
+    {
+        currentGeneration++;
+    }
+
+    /**
+     * Gets the greenhouse index for a chunk, scanning the chunk to create it if necessary.
+     */
+    public static GreenhouseIndex get(LevelChunk chunk)
+    {
+        ISeasonalChunk seasonalChunk = (ISeasonalChunk)chunk;
+        GreenhouseIndex index = seasonalChunk.getGreenhouseIndex();
+
+        if (index == null || index.generation != currentGeneration)
+        {
+            index = build(chunk);
+            seasonalChunk.setGreenhouseIndex(index);
+        }
+
+        return index;
+    }
+
+    private static GreenhouseIndex build(LevelChunk chunk)
+    {
+        GreenhouseIndex index = new GreenhouseIndex(chunk);
+        LevelChunkSection[] sections = chunk.getSections();
+
+        for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++)
+        {
+            LevelChunkSection section = sections[sectionIndex];
+
+            // Most sections can be skipped by checking their palettes
+            if (section.hasOnlyAir() || !section.maybeHas(state -> state.is(ModTags.Blocks.GREENHOUSE_GLASS)))
+                continue;
+
+            for (int y = 0; y < 16; y++)
+            {
+                for (int z = 0; z < 16; z++)
+                {
+                    for (int x = 0; x < 16; x++)
+                    {
+                        if (section.getBlockState(x, y, z).is(ModTags.Blocks.GREENHOUSE_GLASS))
+                        {
+                            index.set(sectionIndex, getColumn(x, z), y, true);
+                        }
+                    }
+                }
+            }
+        }
+
+        return index;
+    }
+
+    private static int getColumn(int x, int z)
+    {
+        return (z & 15) << 4 | (x & 15);
+    }
+
+    /**
+     * Called whenever a block changes in the chunk this index belongs to.
+     */
+    public void onBlockChanged(BlockPos pos, BlockState oldState, BlockState newState)
+    {
+        boolean wasGlass = oldState.is(ModTags.Blocks.GREENHOUSE_GLASS);
+        boolean isGlass = newState.is(ModTags.Blocks.GREENHOUSE_GLASS);
+
+        if (wasGlass != isGlass)
+        {
+            this.set((pos.getY() >> 4) - this.minSection, getColumn(pos.getX(), pos.getZ()), pos.getY() & 15, isGlass);
+        }
+    }
+
+    private void set(int sectionIndex, int column, int y, boolean glass)
+    {
+        if (sectionIndex < 0 || sectionIndex >= this.sections.length)
+            return;
+
+        long[] section = this.sections[sectionIndex];
+
+        if (section == null)
+        {
+            if (!glass)
+                return;
+
+            section = this.sections[sectionIndex] = new long[64];
+        }
+
+        long bit = 1L << (((column & 3) << 4) + y);
+
+        if (glass) section[column >> 2] |= bit;
+        else section[column >> 2] &= ~bit;
+    }
+
+    private int getColumnBits(int sectionIndex, int column)
+    {
+        if (sectionIndex < 0 || sectionIndex >= this.sections.length || this.sections[sectionIndex] == null)
+            return 0;
+
+        return (int)(this.sections[sectionIndex][column >> 2] >>> ((column & 3) << 4)) & 0xFFFF;
+    }
+
+    /**
+     * Gets whether there is greenhouse glass within {@link #RANGE} blocks above the given position.
+     */
+    public boolean isCovered(BlockPos pos)
+    {
+        int bottomY = pos.getY() + 1;
+        int sectionIndex = (bottomY >> 4) - this.minSection;
+        int column = getColumn(pos.getX(), pos.getZ());
+
+        // The range spans at most two sections
+        int bits = this.getColumnBits(sectionIndex, column) | this.getColumnBits(sectionIndex + 1, column) << 16;
+        return (bits & (((1 << RANGE) - 1) << (bottomY & 15))) != 0;
+    }
+}
@@ -0,0 +1,17 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+/**
+ * Implemented by level chunks to hold indexes used by seasonal processing.
+ */
+public interface ISeasonalChunk
+{
+    MeltIndex getMeltIndex();
+    void setMeltIndex(MeltIndex index);
+
+    GreenhouseIndex getGreenhouseIndex();
+    void setGreenhouseIndex(GreenhouseIndex index);
+}
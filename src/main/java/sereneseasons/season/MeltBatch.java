@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.Holder;
+import net.minecraft.core.QuartPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeManager;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.IceBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainerRO;
+import sereneseasons.api.season.Season;
+import sereneseasons.config.ServerConfig;
+import sereneseasons.core.SereneSeasons;
+import sereneseasons.util.SeasonMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A batch of melt candidates whose biome and temperature checks are performed on worker threads. As the level
+ * can't safely be read off the server thread, candidates are gathered along with the biomes of the chunks around
+ * them, and those which pass are melted back on the server thread after checking they haven't changed in the meantime.
+ */
+public class MeltBatch implements BiomeManager.NoiseBiomeSource
+{
+    // Smaller tasks aren't worth the overhead of handing them to another thread
+    private static final int MIN_CANDIDATES_PER_TASK = 64;
+
+    private static ExecutorService executor;
+    private static int workerCount;
+
+    private final ServerLevel level;
+    private final Season.SubSeason subSeason;
+    private final BiomeManager biomeManager;
+    private final int minSection;
+    private final int minQuartY;
+    private final int maxQuartY;
+
+    // Biomes of each section of the chunks around the candidates, or null if the chunk wasn't loaded. Sections replace
+    // their biome containers rather than modifying them, so the containers themselves can be read by the workers.
+    private final Long2ObjectOpenHashMap<PalettedContainerRO<Holder<Biome>>[]> chunkBiomes = new Long2ObjectOpenHashMap<>();
+    private final List<LevelChunk> chunks = new ArrayList<>();
+    private final LongArrayList positions = new LongArrayList();
+    private final BooleanArrayList snow = new BooleanArrayList();
+
+    private boolean[] results;
+    private CompletableFuture<Void> future;
+
+    public MeltBatch(ServerLevel level, Season.SubSeason subSeason)
+    {
+        this.level = level;
+        this.subSeason = subSeason;
+        this.biomeManager = level.getBiomeManager().withDifferentSource(this);
+        this.minSection = level.getMinSection();
+        this.minQuartY = QuartPos.fromSection(this.minSection);
+        this.maxQuartY = this.minQuartY + QuartPos.fromSection(level.getSectionsCount()) - 1;
+    }
+
+    /**
+     * Adds a column to be checked, capturing the biomes required to look up the biome at its surface.
+     *
+     * @param topAirPos the position above the surface of the column
+     * @param snow whether snow above the surface should be melted, otherwise ice at the surface is melted
+     */
+    public void add(LevelChunk chunk, BlockPos topAirPos, boolean snow)
+    {
+        this.chunks.add(chunk);
+        this.positions.add(topAirPos.asLong());
+        this.snow.add(snow);
+
+        // Biome lookups choose between the noise biomes at the corners surrounding the offset position, which may
+        // belong to neighbouring chunks. Each chunk is only captured once per batch.
+        int minQuartX = QuartPos.fromBlock(topAirPos.getX() - 2);
+        int minQuartZ = QuartPos.fromBlock(topAirPos.getZ() - 2);
+
+        for (int chunkX = QuartPos.toSection(minQuartX); chunkX <= QuartPos.toSection(minQuartX + 1); chunkX++)
+        {
+            for (int chunkZ = QuartPos.toSection(minQuartZ); chunkZ <= QuartPos.toSection(minQuartZ + 1); chunkZ++)
+            {
+                this.captureChunk(chunk, chunkX, chunkZ);
+            }
+        }
+    }
+
+    public int size()
+    {
+        return this.positions.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void captureChunk(LevelChunk candidateChunk, int chunkX, int chunkZ)
+    {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+
+        if (this.chunkBiomes.containsKey(key))
+            return;
+
+        ChunkPos candidatePos = candidateChunk.getPos();
+        LevelChunk chunk = candidatePos.x == chunkX && candidatePos.z == chunkZ ? candidateChunk : this.level.getChunkSource().getChunkNow(chunkX, chunkZ);
+        PalettedContainerRO<Holder<Biome>>[] biomes = null;
+
+        if (chunk != null)
+        {
+            LevelChunkSection[] sections = chunk.getSections();
+            biomes = new PalettedContainerRO[sections.length];
+
+            for (int i = 0; i < sections.length; i++)
+            {
+                biomes[i] = sections[i].getBiomes();
+            }
+        }
+
+        this.chunkBiomes.put(key, biomes);
+    }
+
+    @Override
+    public Holder<Biome> getNoiseBiome(int quartX, int quartY, int quartZ)
+    {
+        int clampedQuartY = Mth.clamp(quartY, this.minQuartY, this.maxQuartY);
+        PalettedContainerRO<Holder<Biome>>[] biomes = this.chunkBiomes.get(ChunkPos.asLong(QuartPos.toSection(quartX), QuartPos.toSection(quartZ)));
+
+        // Fall back to the biome source, which is safe to use from any thread
+        if (biomes == null)
+            return this.level.getUncachedNoiseBiome(quartX, quartY, quartZ);
+
+        return biomes[QuartPos.toSection(clampedQuartY) - this.minSection].get(quartX & 3, clampedQuartY & 3, quartZ & 3);
+    }
+
+    /**
+     * Begins checking the candidates on the worker threads. The batch must not be modified afterwards.
+     */
+    public void submit()
+    {
+        int size = this.size();
+        this.results = new boolean[size];
+
+        if (size == 0)
+        {
+            this.future = CompletableFuture.completedFuture(null);
+            return;
+        }
+
+        ExecutorService executor = getExecutor();
+        int taskCount = Math.max(1, Math.min(workerCount, size / MIN_CANDIDATES_PER_TASK));
+        CompletableFuture<?>[] tasks = new CompletableFuture[taskCount];
+
+        for (int task = 0; task < taskCount; task++)
+        {
+            int from = (int)((long)size * task / taskCount);
+            int to = (int)((long)size * (task + 1) / taskCount);
+            tasks[task] = CompletableFuture.runAsync(() -> this.evaluate(from, to), executor);
+        }
+
+        this.future = CompletableFuture.allOf(tasks);
+    }
+
+    private void evaluate(int from, int to)
+    {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (int i = from; i < to; i++)
+        {
+            pos.set(this.positions.getLong(i));
+            Holder<Biome> biome = this.biomeManager.getBiome(pos);
+
+            if ((BiomeSeasonTable.getFlags(biome) & BiomeSeasonTable.BLACKLISTED) != 0)
+                continue;
+
+            // Temperature is measured at the surface rather than above it
+            pos.move(Direction.DOWN);
+            this.results[i] = SeasonHooks.getBiomeTemperatureInSeason(this.subSeason, biome, pos) >= 0.15F;
+        }
+    }
+
+    /**
+     * Waits for the candidates to be checked and melts those which passed. Must be called on the server thread.
+     *
+     * @return the number of blocks melted
+     */
+    public int apply(MeltScheduler scheduler)
+    {
+        try
+        {
+            this.future.join();
+        }
+        catch (CompletionException e)
+        {
+            SereneSeasons.LOGGER.error("Failed to select melt candidates", e.getCause());
+            return 0;
+        }
+
+        int melted = 0;
+
+        for (int i = 0; i < this.results.length; i++)
+        {
+            LevelChunk chunk = this.chunks.get(i);
+
+            // The level may have changed since the candidate was gathered
+            if (!this.results[i] || !scheduler.isLoaded(chunk))
+                continue;
+
+            BlockPos topAirPos = BlockPos.of(this.positions.getLong(i));
+
+            if (this.snow.getBoolean(i))
+            {
+                if (chunk.getBlockState(topAirPos).getBlock() == Blocks.SNOW)
+                {
+                    this.level.setBlockAndUpdate(topAirPos, Blocks.AIR.defaultBlockState());
+                    melted++;
+                }
+            }
+            else
+            {
+                BlockPos topGroundPos = topAirPos.below();
+                BlockState groundState = chunk.getBlockState(topGroundPos);
+
+                if (groundState.getBlock() == Blocks.ICE)
+                {
+                    ((IceBlock) Blocks.ICE).melt(groundState, this.level, topGroundPos);
+                    melted++;
+                }
+            }
+        }
+
+        SeasonMetrics.count(SeasonMetrics.Counter.BLOCKS_MELTED, this.level, melted);
+        return melted;
+    }
+
+    private static ExecutorService getExecutor()
+    {
+        if (executor == null)
+        {
+            int threads = ServerConfig.meltWorkerThreads.get();
+            AtomicInteger threadId = new AtomicInteger();
+
+            workerCount = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            executor = Executors.newFixedThreadPool(workerCount, runnable ->
+            {
+                Thread thread = new Thread(runnable, "Serene Seasons Melt Worker #" + threadId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return executor;
+    }
+
+    public static void shutdownExecutor()
+    {
+        if (executor != null)
+        {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+/**
+ * Records which columns of a chunk may have snow or ice at their surface, allowing melting to
+ * skip columns and chunks which have nothing to melt. A set column is only a hint and must be
+ * checked before melting, however a clear column is guaranteed to have nothing to melt.
+ */
+public class MeltIndex
+{
+    private final long[] columns = new long[4];
+    private int count;
+
+    public static int getColumn(int x, int z)
+    {
+        return (z & 15) << 4 | (x & 15);
+    }
+
+    public static int getColumnX(int column)
+    {
+        return column & 15;
+    }
+
+    public static int getColumnZ(int column)
+    {
+        return column >> 4;
+    }
+
+    /**
+     * Gets the melt index for a chunk, scanning the chunk to create it if necessary.
+     */
+    public static MeltIndex get(LevelChunk chunk)
+    {
+        ISeasonalChunk seasonalChunk = (ISeasonalChunk)chunk;
+        MeltIndex index = seasonalChunk.getMeltIndex();
+
+        if (index == null)
+        {
+            index = build(chunk);
+            seasonalChunk.setMeltIndex(index);
+        }
+
+        return index;
+    }
+
+    private static MeltIndex build(LevelChunk chunk)
+    {
+        MeltIndex index = new MeltIndex();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+        for (int column = 0; column < 256; column++)
+        {
+            int x = getColumnX(column);
+            int z = getColumnZ(column);
+            int groundY = chunk.getHeight(Heightmap.Types.MOTION_BLOCKING, x, z);
+
+            if (chunk.getBlockState(pos.set(x, groundY + 1, z)).is(Blocks.SNOW) || chunk.getBlockState(pos.set(x, groundY, z)).is(Blocks.ICE))
+            {
+                index.mark(column);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Called whenever a block changes in the chunk this index belongs to.
+     */
+    public void onBlockChanged(LevelChunk chunk, BlockPos pos, BlockState newState)
+    {
+        this.onBlockChanged(getColumn(pos.getX(), pos.getZ()), pos.getY(), chunk.getHeight(Heightmap.Types.MOTION_BLOCKING, pos.getX(), pos.getZ()), newState);
+    }
+
+    /**
+     * @param surfaceY the height of the highest motion blocking block in the column, after the change
+     */
+    public void onBlockChanged(int column, int y, int surfaceY, BlockState newState)
+    {
+        // Snow and ice are always marked, as ice frozen from water needn't be at or above the surface height. Any
+        // other change at or above the surface may expose snow or ice by removing blocks above it.
+        if (newState.is(Blocks.SNOW) || newState.is(Blocks.ICE) || y >= surfaceY)
+        {
+            this.mark(column);
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return this.count == 0;
+    }
+
+    public boolean mayMelt(int column)
+    {
+        return (this.columns[column >> 6] & (1L << column)) != 0;
+    }
+
+    public void mark(int column)
+    {
+        if (!this.mayMelt(column))
+        {
+            this.columns[column >> 6] |= 1L << column;
+            this.count++;
+        }
+    }
+
+    public void clear(int column)
+    {
+        if (this.mayMelt(column))
+        {
+            this.columns[column >> 6] &= ~(1L << column);
+            this.count--;
+        }
+    }
+}
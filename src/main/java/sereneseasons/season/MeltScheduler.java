@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.util.Mth;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracks the loaded chunks of a level, along with those whose ticket level allows them to be randomly
+ * ticked, so melting can sample eligible chunks directly rather than collecting and shuffling every
+ * ticking chunk each tick.
+ */
+public class MeltScheduler
+{
+    private final List<LevelChunk> chunks = new ArrayList<>();
+    private final Long2IntOpenHashMap chunkIndices = new Long2IntOpenHashMap();
+
+    // Loaded chunks with a block ticking ticket level. Whether players are close enough is left to be checked when sampled.
+    private final List<LevelChunk> tickingChunks = new ArrayList<>();
+    private final Long2IntOpenHashMap tickingChunkIndices = new Long2IntOpenHashMap();
+    private final ArrayDeque<LevelChunk> catchUpQueue = new ArrayDeque<>();
+
+    // The position of the next chunk to be visited when refreshing melt stamps
+    private int stampCursor;
+
+    // Rolls which couldn't be performed last tick due to the budget
+    private float deferredRolls;
+
+    // Candidates selected at the start of the tick, to be melted at the end of it
+    private MeltBatch pendingBatch;
+
+    public MeltScheduler()
+    {
+        this.chunkIndices.defaultReturnValue(-1);
+        this.tickingChunkIndices.defaultReturnValue(-1);
+    }
+
+    public void addChunk(LevelChunk chunk, boolean ticking)
+    {
+        add(this.chunks, this.chunkIndices, chunk);
+        this.setTicking(chunk, ticking);
+    }
+
+    public void removeChunk(LevelChunk chunk)
+    {
+        remove(this.chunks, this.chunkIndices, chunk.getPos().toLong());
+        remove(this.tickingChunks, this.tickingChunkIndices, chunk.getPos().toLong());
+    }
+
+    /**
+     * Updates whether a loaded chunk's ticket level allows it to be randomly ticked. Chunks which aren't loaded are ignored.
+     */
+    public void setTicking(long pos, boolean ticking)
+    {
+        int index = this.chunkIndices.get(pos);
+
+        if (index >= 0)
+        {
+            this.setTicking(this.chunks.get(index), ticking);
+        }
+    }
+
+    private void setTicking(LevelChunk chunk, boolean ticking)
+    {
+        if (ticking) add(this.tickingChunks, this.tickingChunkIndices, chunk);
+        else remove(this.tickingChunks, this.tickingChunkIndices, chunk.getPos().toLong());
+    }
+
+    private static void add(List<LevelChunk> chunks, Long2IntOpenHashMap indices, LevelChunk chunk)
+    {
+        long pos = chunk.getPos().toLong();
+        int index = indices.get(pos);
+
+        if (index >= 0)
+        {
+            chunks.set(index, chunk);
+            return;
+        }
+
+        indices.put(pos, chunks.size());
+        chunks.add(chunk);
+    }
+
+    private static void remove(List<LevelChunk> chunks, Long2IntOpenHashMap indices, long pos)
+    {
+        int index = indices.remove(pos);
+
+        if (index < 0)
+            return;
+
+        // Move the last chunk into the vacated slot so removal is constant time
+        LevelChunk last = chunks.remove(chunks.size() - 1);
+
+        if (index < chunks.size())
+        {
+            chunks.set(index, last);
+            indices.put(last.getPos().toLong(), index);
+        }
+    }
+
+    public int getChunkCount()
+    {
+        return this.chunks.size();
+    }
+
+    public int getTickingChunkCount()
+    {
+        return this.tickingChunks.size();
+    }
+
+    /**
+     * Gets a chunk sampled uniformly from those with a block ticking ticket level, or null if there are none.
+     */
+    @Nullable
+    public LevelChunk getRandomTickingChunk(RandomSource random)
+    {
+        return this.tickingChunks.isEmpty() ? null : this.tickingChunks.get(random.nextInt(this.tickingChunks.size()));
+    }
+
+    public boolean isLoaded(LevelChunk chunk)
+    {
+        int index = this.chunkIndices.get(chunk.getPos().toLong());
+        return index >= 0 && this.chunks.get(index) == chunk;
+    }
+
+    public List<LevelChunk> getChunks()
+    {
+        return this.chunks;
+    }
+
+    public void setPendingBatch(MeltBatch batch)
+    {
+        this.pendingBatch = batch;
+    }
+
+    public MeltBatch takePendingBatch()
+    {
+        MeltBatch batch = this.pendingBatch;
+        this.pendingBatch = null;
+        return batch;
+    }
+
+    public void queueCatchUp(LevelChunk chunk)
+    {
+        this.catchUpQueue.add(chunk);
+    }
+
+    /**
+     * Gets the next loaded chunk waiting for catch-up melting, or null if there are none.
+     */
+    public LevelChunk pollCatchUp()
+    {
+        LevelChunk chunk;
+
+        // Chunks may have been unloaded while they were waiting
+        while ((chunk = this.catchUpQueue.poll()) != null)
+        {
+            if (this.isLoaded(chunk))
+                return chunk;
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the next slice of chunks whose melt stamps should be refreshed, such that every chunk is visited
+     * once per interval.
+     *
+     * @param interval the number of ticks to spread a full pass over the loaded chunks across
+     * @param output the list to add the chunks to
+     */
+    public void getStampSlice(int interval, List<LevelChunk> output)
+    {
+        int size = this.chunks.size();
+
+        if (size == 0)
+            return;
+
+        int count = Math.min(size, (size + interval - 1) / interval);
+
+        for (int i = 0; i < count; i++)
+        {
+            if (this.stampCursor >= size)
+                this.stampCursor = 0;
+
+            output.add(this.chunks.get(this.stampCursor++));
+        }
+    }
+
+    /**
+     * Performs melt rolls against chunks sampled uniformly from those with a block ticking ticket level. A sampled
+     * chunk which can't be rolled in this tick is skipped rather than redrawn, as vanilla wouldn't have made the
+     * roll either, which keeps the rate in every eligible chunk the same as vanilla's.
+     *
+     * @param rollCount the number of successful rolls to perform, as given by getRollCount
+     * @return the number of chunks rolled in
+     */
+    public int performRolls(int rollCount, RandomSource random, RollTarget target)
+    {
+        int rolled = 0;
+
+        for (int i = 0; i < rollCount; i++)
+        {
+            LevelChunk chunk = this.getRandomTickingChunk(random);
+
+            if (chunk == null)
+                break;
+
+            if (target.canRoll(chunk))
+            {
+                target.roll(chunk);
+                rolled++;
+            }
+        }
+
+        return rolled;
+    }
+
+    /**
+     * Determines how many successful melt rolls should be performed this tick. Rather than rolling
+     * for every chunk individually, the expected number of successes across all eligible chunks is
+     * computed up front, with the fractional part resolved randomly so the average rate is unchanged.
+     *
+     * @param eligibleChunks the number of chunks which would have been rolled for
+     * @param rolls the number of rolls per chunk
+     * @param meltChance the chance of each roll succeeding
+     * @param budget the maximum number of rolls to perform, or 0 for no limit
+     */
+    public int getRollCount(int eligibleChunks, int rolls, float meltChance, int budget, RandomSource random)
+    {
+        float expected = (float)eligibleChunks * rolls * meltChance + this.deferredRolls;
+        int count = Mth.floor(expected);
+
+        if (random.nextFloat() < expected - count)
+        {
+            count++;
+        }
+
+        this.deferredRolls = 0.0F;
+
+        if (budget > 0 && count > budget)
+        {
+            // Carry at most one tick's worth of work over so a backlog can't build up indefinitely
+            this.deferredRolls = Math.min(count - budget, budget);
+            count = budget;
+        }
+
+        return count;
+    }
+
+    public interface RollTarget
+    {
+        /**
+         * Gets whether a sampled chunk would be randomly ticked this tick, such as by being close enough to a player.
+         */
+        boolean canRoll(LevelChunk chunk);
+
+        void roll(LevelChunk chunk);
+    }
+}
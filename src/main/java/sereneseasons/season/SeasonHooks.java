@@ -21,7 +21,7 @@ import sereneseasons.api.season.Season;
 import sereneseasons.api.season.SeasonHelper;
 import sereneseasons.config.SeasonsConfig;
 import sereneseasons.config.ServerConfig;
-import sereneseasons.init.ModTags;
+import sereneseasons.util.SeasonMetrics;
 
 public class SeasonHooks
 {
@@ -30,6 +30,14 @@ public class SeasonHooks
     //
 
     public static boolean shouldSnowHook(Biome biome, LevelReader levelReader, BlockPos pos)
+    {
+        long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.SHOULD_SNOW, levelReader);
+        boolean shouldSnow = shouldSnow(biome, levelReader, pos);
+        SeasonMetrics.stop(SeasonMetrics.Probe.SHOULD_SNOW, levelReader, metricsStart);
+        return shouldSnow;
+    }
+
+    private static boolean shouldSnow(Biome biome, LevelReader levelReader, BlockPos pos)
     {
         if ((SeasonsConfig.generateSnowAndIce.get() && warmEnoughToRainSeasonal(levelReader, pos)) || (!SeasonsConfig.generateSnowAndIce.get() && biome.warmEnoughToRain(pos)))
         {
@@ -52,10 +60,21 @@ public class SeasonHooks
 
     public static boolean shouldFreezeWarmEnoughToRainHook(Biome biome, BlockPos pos, LevelReader levelReader)
     {
-        return (SeasonsConfig.generateSnowAndIce.get() && warmEnoughToRainSeasonal(levelReader, pos)) || (!SeasonsConfig.generateSnowAndIce.get() && biome.warmEnoughToRain(pos));
+        long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.SHOULD_FREEZE, levelReader);
+        boolean warmEnoughToRain = (SeasonsConfig.generateSnowAndIce.get() && warmEnoughToRainSeasonal(levelReader, pos)) || (!SeasonsConfig.generateSnowAndIce.get() && biome.warmEnoughToRain(pos));
+        SeasonMetrics.stop(SeasonMetrics.Probe.SHOULD_FREEZE, levelReader, metricsStart);
+        return warmEnoughToRain;
     }
 
     public static boolean isRainingAtHook(Level level, BlockPos position)
+    {
+        long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.IS_RAINING_AT, level);
+        boolean raining = isRainingAt(level, position);
+        SeasonMetrics.stop(SeasonMetrics.Probe.IS_RAINING_AT, level, metricsStart);
+        return raining;
+    }
+
+    private static boolean isRainingAt(Level level, BlockPos position)
     {
         if (!level.isRaining()) return false;
         else if (!level.canSeeSky(position)) return false;
@@ -64,7 +83,7 @@ public class SeasonHooks
         {
             Holder<Biome> biome = level.getBiome(position);
 
-            if (ServerConfig.isDimensionWhitelisted(level.dimension()) && !biome.is(ModTags.Biomes.BLACKLISTED_BIOMES))
+            if (ServerConfig.isDimensionWhitelisted(level.dimension()) && (BiomeSeasonTable.getFlags(biome) & BiomeSeasonTable.BLACKLISTED) == 0)
             {
                 return getPrecipitationAtSeasonal(level, biome, position) == Biome.Precipitation.RAIN && warmEnoughToRainSeasonal(level, biome, position);
             }
@@ -80,6 +99,14 @@ public class SeasonHooks
     //
 
     public static Biome.Precipitation getPrecipitationAtTickIceAndSnowHook(LevelReader level, Biome biome, BlockPos pos)
+    {
+        long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.TICK_ICE_AND_SNOW_PRECIPITATION, level);
+        Biome.Precipitation precipitation = getPrecipitationAtTickIceAndSnow(level, biome, pos);
+        SeasonMetrics.stop(SeasonMetrics.Probe.TICK_ICE_AND_SNOW_PRECIPITATION, level, metricsStart);
+        return precipitation;
+    }
+
+    private static Biome.Precipitation getPrecipitationAtTickIceAndSnow(LevelReader level, Biome biome, BlockPos pos)
     {
         if (!biome.hasPrecipitation())
         {
@@ -94,6 +121,16 @@ public class SeasonHooks
 
     @OnlyIn(Dist.CLIENT)
     public static Biome.Precipitation getPrecipitationAtLevelRendererHook(Holder<Biome> biome, BlockPos pos)
+    {
+        Level level = Minecraft.getInstance().level;
+        long metricsStart = SeasonMetrics.start(SeasonMetrics.Probe.RENDER_PRECIPITATION, level);
+        Biome.Precipitation precipitation = getPrecipitationAtLevelRenderer(biome, pos);
+        SeasonMetrics.stop(SeasonMetrics.Probe.RENDER_PRECIPITATION, level, metricsStart);
+        return precipitation;
+    }
+
+    @OnlyIn(Dist.CLIENT)
+    private static Biome.Precipitation getPrecipitationAtLevelRenderer(Holder<Biome> biome, BlockPos pos)
     {
         Level level = Minecraft.getInstance().level;
 
@@ -142,49 +179,31 @@ public class SeasonHooks
 
     public static float getBiomeTemperature(Level level, Holder<Biome> biome, BlockPos pos)
     {
-        if (!ServerConfig.isDimensionWhitelisted(level.dimension()) || biome.is(ModTags.Biomes.BLACKLISTED_BIOMES))
+        if (!ServerConfig.isDimensionWhitelisted(level.dimension()) || (BiomeSeasonTable.getFlags(biome) & BiomeSeasonTable.BLACKLISTED) != 0)
         {
             return biome.value().getTemperature(pos);
         }
 
-        return getBiomeTemperatureInSeason(new SeasonTime(SeasonHelper.getSeasonState(level).getSeasonCycleTicks()).getSubSeason(), biome, pos);
+        return getBiomeTemperatureInSeason(SeasonHelper.getSeasonState(level).getSubSeason(), biome, pos);
     }
 
     public static float getBiomeTemperatureInSeason(Season.SubSeason subSeason, Holder<Biome> biome, BlockPos pos)
     {
-        boolean tropicalBiome = biome.is(ModTags.Biomes.TROPICAL_BIOMES);
         float biomeTemp = biome.value().getTemperature(pos);
-        if (!tropicalBiome && biome.value().getBaseTemperature() <= 0.8F && !biome.is(ModTags.Biomes.BLACKLISTED_BIOMES))
-        {
-            switch (subSeason)
-            {
-                default:
-                    break;
+        float offset = BiomeSeasonTable.getTemperatureOffset(biome, subSeason);
 
-                case LATE_SPRING: case EARLY_AUTUMN:
-                biomeTemp = Mth.clamp(biomeTemp - 0.1F, -0.5F, 2.0F);
-                break;
-
-                case MID_SPRING: case MID_AUTUMN:
-                biomeTemp = Mth.clamp(biomeTemp - 0.2F, -0.5F, 2.0F);
-                break;
-
-                case EARLY_SPRING: case LATE_AUTUMN:
-                biomeTemp = Mth.clamp(biomeTemp - 0.4F, -0.5F, 2.0F);
-                break;
-
-                case EARLY_WINTER: case MID_WINTER: case LATE_WINTER:
-                biomeTemp = Mth.clamp(biomeTemp - 0.8F, -0.5F, 2.0F);
-                break;
-            }
+        // Biomes which aren't affected by seasons, or seasons which don't affect temperature, have no offset
+        if (offset == 0.0F)
+        {
+            return biomeTemp;
         }
 
-        return biomeTemp;
+        return Mth.clamp(biomeTemp - offset, -0.5F, 2.0F);
     }
 
     public static boolean hasPrecipitationSeasonal(Level level, Holder<Biome> biome)
     {
-        if (biome.is(ModTags.Biomes.TROPICAL_BIOMES))
+        if ((BiomeSeasonTable.getFlags(biome) & BiomeSeasonTable.TROPICAL) != 0)
         {
             Season.TropicalSeason tropicalSeason = SeasonHelper.getSeasonState(level).getTropicalSeason();
 
@@ -15,10 +15,44 @@ public class SeasonSavedData extends SavedData
     
     public int seasonCycleTicks;
 
+    // The total number of season ticks which have passed, unaffected by the season being set. Used to measure how long
+    // chunks have been unloaded for.
+    public long elapsedTicks;
+
+    // Read from worldgen threads as well as the server thread
+    private volatile SeasonSnapshot snapshot;
+
+    /**
+     * Gets an immutable snapshot of the current season state. The snapshot is rebuilt whenever
+     * {@link #seasonCycleTicks} no longer matches it, so it can never be out of sync with the counter.
+     */
+    public SeasonSnapshot getSnapshot()
+    {
+        SeasonSnapshot snapshot = this.snapshot;
+
+        if (snapshot == null || snapshot.getSeasonCycleTicks() != this.seasonCycleTicks)
+        {
+            snapshot = this.updateSnapshot();
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Rebuilds the snapshot from the current counter and config values.
+     */
+    public SeasonSnapshot updateSnapshot()
+    {
+        SeasonSnapshot snapshot = new SeasonSnapshot(this.seasonCycleTicks);
+        this.snapshot = snapshot;
+        return snapshot;
+    }
+
     @Override
     public CompoundTag save(CompoundTag nbt)
     {
         nbt.putInt("SeasonCycleTicks", this.seasonCycleTicks);
+        nbt.putLong("ElapsedTicks", this.elapsedTicks);
         return nbt;
     }
 
@@ -26,6 +60,7 @@ public class SeasonSavedData extends SavedData
     {
         SeasonSavedData data = new SeasonSavedData();
         data.seasonCycleTicks = Mth.clamp(nbt.getInt("SeasonCycleTicks"), 0, SeasonTime.ZERO.getCycleDuration());
+        data.elapsedTicks = Math.max(nbt.getLong("ElapsedTicks"), 0L);
         return data;
     }
 }
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import com.google.common.base.Preconditions;
+import sereneseasons.api.season.ISeasonState;
+import sereneseasons.api.season.Season;
+import sereneseasons.config.ServerConfig;
+
+/**
+ * An immutable view of the season state at a single point in time. Unlike {@link SeasonTime},
+ * the durations and seasons are resolved once on construction so the getters never touch the config.
+ */
+public final class SeasonSnapshot implements ISeasonState
+{
+    private final int time;
+    private final int dayDuration;
+    private final int subSeasonDuration;
+    private final Season.SubSeason subSeason;
+    private final Season.TropicalSeason tropicalSeason;
+
+    public SeasonSnapshot(int time)
+    {
+        this(time, ServerConfig.dayDuration.get(), ServerConfig.subSeasonDuration.get());
+    }
+
+    public SeasonSnapshot(int time, int dayDuration, int subSeasonDays)
+    {
+        Preconditions.checkArgument(time >= 0, "Time cannot be negative!");
+        this.time = time;
+        this.dayDuration = dayDuration;
+        this.subSeasonDuration = dayDuration * subSeasonDays;
+
+        int subSeasonIndex = time / this.subSeasonDuration;
+        this.subSeason = Season.SubSeason.VALUES[subSeasonIndex % Season.SubSeason.VALUES.length];
+        this.tropicalSeason = Season.TropicalSeason.VALUES[(((subSeasonIndex + 11) / 2) + 5) % Season.TropicalSeason.VALUES.length];
+    }
+
+    @Override
+    public int getDayDuration()
+    {
+        return this.dayDuration;
+    }
+
+    @Override
+    public int getSubSeasonDuration()
+    {
+        return this.subSeasonDuration;
+    }
+
+    @Override
+    public int getSeasonDuration()
+    {
+        return this.subSeasonDuration * 3;
+    }
+
+    @Override
+    public int getCycleDuration()
+    {
+        return this.subSeasonDuration * Season.SubSeason.VALUES.length;
+    }
+
+    @Override
+    public int getSeasonCycleTicks()
+    {
+        return this.time;
+    }
+
+    @Override
+    public int getDay()
+    {
+        return this.time / this.dayDuration;
+    }
+
+    @Override
+    public Season.SubSeason getSubSeason()
+    {
+        return this.subSeason;
+    }
+
+    @Override
+    public Season getSeason()
+    {
+        return this.subSeason.getSeason();
+    }
+
+    @Override
+    public Season.TropicalSeason getTropicalSeason()
+    {
+        return this.tropicalSeason;
+    }
+}
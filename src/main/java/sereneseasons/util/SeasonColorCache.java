@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.util;
+
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.FoliageColor;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import sereneseasons.api.season.ISeasonColorProvider;
+import sereneseasons.api.season.ISeasonState;
+import sereneseasons.api.season.Season;
+import sereneseasons.config.ServerConfig;
+import sereneseasons.season.BiomeSeasonTable;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Caches the seasonal grass and foliage colours of each biome in a level for the current sub season. Each biome
+ * remembers its most recent original colour and the colour it was transformed into, which for the majority of
+ * biomes whose colour doesn't vary by position means the transform is only ever computed once.
+ *
+ * When transition steps are used, colours are blended towards those of the next season in that many steps over
+ * the course of each sub season, with a new cache created for each step.
+ */
+public final class SeasonColorCache
+{
+    private static final long EMPTY = -1L;
+    private static final int UNKNOWN_FLAGS = Integer.MIN_VALUE;
+
+    private final Level level;
+    private final int colorKey;
+    private final Season.SubSeason subSeason;
+    private final Season.SubSeason nextSubSeason;
+    private final float subSeasonProgress;
+    private final Season.TropicalSeason tropicalSeason;
+    private final Season.TropicalSeason nextTropicalSeason;
+    private final float tropicalSeasonProgress;
+    private final int configGeneration;
+    private final int biomeGeneration;
+    private final Registry<Biome> registry;
+
+    // Read concurrently by the chunk meshing threads
+    private final AtomicIntegerArray biomeFlags;
+    private final AtomicLongArray grassColors;
+    private final AtomicLongArray foliageColors;
+    private final AtomicLongArray birchColors;
+
+    /**
+     * @param colorKey identifies the colours the cache was created for, see {@link #getColorKey}
+     * @param transitionSteps the number of steps to blend between seasons in, or 0 to not blend
+     */
+    public SeasonColorCache(Level level, int colorKey, ISeasonState seasonState, int transitionSteps)
+    {
+        int subSeasonIndex = seasonState.getSeasonCycleTicks() / seasonState.getSubSeasonDuration();
+        int step = getTransitionStep(seasonState, transitionSteps);
+
+        this.level = level;
+        this.colorKey = colorKey;
+        this.subSeason = seasonState.getSubSeason();
+        this.nextSubSeason = Season.SubSeason.VALUES[(this.subSeason.ordinal() + 1) % Season.SubSeason.VALUES.length];
+        this.subSeasonProgress = transitionSteps > 0 ? (float)step / transitionSteps : 0.0F;
+        this.tropicalSeason = seasonState.getTropicalSeason();
+        this.nextTropicalSeason = Season.TropicalSeason.VALUES[(this.tropicalSeason.ordinal() + 1) % Season.TropicalSeason.VALUES.length];
+
+        // Tropical seasons last for two sub seasons, beginning on odd sub seasons
+        int tropicalHalf = (subSeasonIndex + 1) % 2;
+        this.tropicalSeasonProgress = transitionSteps > 0 ? (float)(tropicalHalf * transitionSteps + step) / (transitionSteps * 2) : 0.0F;
+
+        this.configGeneration = ServerConfig.getGeneration();
+        this.biomeGeneration = BiomeSeasonTable.getGeneration();
+        this.registry = level.registryAccess().registryOrThrow(Registries.BIOME);
+
+        int size = this.registry.size();
+        this.biomeFlags = new AtomicIntegerArray(size);
+        this.grassColors = new AtomicLongArray(size);
+        this.foliageColors = new AtomicLongArray(size);
+        this.birchColors = new AtomicLongArray(size);
+
+        for (int i = 0; i < size; i++)
+        {
+            this.biomeFlags.lazySet(i, UNKNOWN_FLAGS);
+            this.grassColors.lazySet(i, EMPTY);
+            this.foliageColors.lazySet(i, EMPTY);
+            this.birchColors.lazySet(i, EMPTY);
+        }
+    }
+
+    /**
+     * Gets whether the cache can still be used for the given level and colours.
+     */
+    public boolean isValid(Level level, int colorKey)
+    {
+        return this.level == level && this.colorKey == colorKey && this.configGeneration == ServerConfig.getGeneration() && this.biomeGeneration == BiomeSeasonTable.getGeneration();
+    }
+
+    /**
+     * Gets a key which changes whenever the colours for the given state change.
+     */
+    public static int getColorKey(ISeasonState seasonState, int transitionSteps)
+    {
+        return (seasonState.getSubSeason().ordinal() * 65 + getTransitionStep(seasonState, transitionSteps)) * 65 + transitionSteps;
+    }
+
+    /**
+     * Gets how far through the current sub season the given state is, in the given number of steps.
+     */
+    public static int getTransitionStep(ISeasonState seasonState, int transitionSteps)
+    {
+        int subSeasonDuration = seasonState.getSubSeasonDuration();
+        long ticksIntoSubSeason = seasonState.getSeasonCycleTicks() % subSeasonDuration;
+
+        return (int)(ticksIntoSubSeason * transitionSteps / subSeasonDuration);
+    }
+
+    public int getGrassColor(Biome biome, int originalColour)
+    {
+        return this.getColor(biome, originalColour, this.grassColors, false);
+    }
+
+    public int getFoliageColor(Biome biome, int originalColour)
+    {
+        return this.getColor(biome, originalColour, this.foliageColors, true);
+    }
+
+    public int getBirchColor(Biome biome)
+    {
+        int id = this.registry.getId(biome);
+
+        if (id < 0 || id >= this.birchColors.length())
+            return FoliageColor.getBirchColor();
+
+        long entry = this.birchColors.get(id);
+
+        if (entry != EMPTY)
+            return (int)entry;
+
+        int colour = this.computeBirchColour(this.getBiomeFlags(id));
+        this.birchColors.lazySet(id, colour & 0xFFFFFFFFL);
+        return colour;
+    }
+
+    private int computeBirchColour(int flags)
+    {
+        if (flags < 0 || (flags & BiomeSeasonTable.BLACKLISTED) != 0 || !ServerConfig.changeBirchColor.get() || !ServerConfig.isDimensionWhitelisted(this.level.dimension()))
+            return FoliageColor.getBirchColor();
+
+        boolean tropical = (flags & BiomeSeasonTable.TROPICAL) != 0;
+        float progress = tropical ? this.tropicalSeasonProgress : this.subSeasonProgress;
+        int colour = getBirchColour(tropical ? this.tropicalSeason : this.subSeason, flags);
+
+        if (progress > 0.0F)
+        {
+            colour = SeasonColorUtil.mixColours(colour, getBirchColour(tropical ? this.nextTropicalSeason : this.nextSubSeason, flags), progress);
+        }
+
+        return colour;
+    }
+
+    private static int getBirchColour(ISeasonColorProvider colorProvider, int flags)
+    {
+        if ((flags & BiomeSeasonTable.LESSER_COLOR_CHANGE) != 0)
+            return SeasonColorUtil.mixColours(colorProvider.getBirchColor(), FoliageColor.getBirchColor(), 0.75F);
+
+        return colorProvider.getBirchColor();
+    }
+
+    private int getColor(Biome biome, int originalColour, AtomicLongArray colors, boolean foliage)
+    {
+        int id = this.registry.getId(biome);
+
+        // Biomes missing from the registry have never been coloured
+        if (id < 0 || id >= colors.length())
+            return originalColour;
+
+        long entry = colors.get(id);
+
+        if (entry != EMPTY && (int)(entry >>> 32) == originalColour)
+            return (int)entry;
+
+        int flags = this.getBiomeFlags(id);
+
+        if (flags < 0)
+            return originalColour;
+
+        boolean tropical = (flags & BiomeSeasonTable.TROPICAL) != 0;
+        float progress = tropical ? this.tropicalSeasonProgress : this.subSeasonProgress;
+        int colour = applySeasonalColouring(tropical ? this.tropicalSeason : this.subSeason, flags, originalColour, foliage);
+
+        if (progress > 0.0F)
+        {
+            colour = SeasonColorUtil.mixColours(colour, applySeasonalColouring(tropical ? this.nextTropicalSeason : this.nextSubSeason, flags, originalColour, foliage), progress);
+        }
+
+        colors.lazySet(id, (long)originalColour << 32 | (colour & 0xFFFFFFFFL));
+        return colour;
+    }
+
+    private static int applySeasonalColouring(ISeasonColorProvider colorProvider, int flags, int originalColour, boolean foliage)
+    {
+        return foliage ? SeasonColorUtil.applySeasonalFoliageColouring(colorProvider, flags, originalColour) : SeasonColorUtil.applySeasonalGrassColouring(colorProvider, flags, originalColour);
+    }
+
+    private int getBiomeFlags(int id)
+    {
+        int flags = this.biomeFlags.get(id);
+
+        if (flags == UNKNOWN_FLAGS)
+        {
+            flags = this.registry.getHolder(id).map(BiomeSeasonTable::getFlags).orElse(-1);
+            this.biomeFlags.lazySet(id, flags);
+        }
+
+        return flags;
+    }
+}
@@ -13,7 +13,7 @@ import net.minecraft.world.level.biome.Biome;
 import sereneseasons.api.season.ISeasonColorProvider;
 import sereneseasons.api.season.Season;
 import sereneseasons.config.ServerConfig;
-import sereneseasons.init.ModTags;
+import sereneseasons.season.BiomeSeasonTable;
 
 public class SeasonColorUtil
 {
@@ -39,13 +39,27 @@ public class SeasonColorUtil
         return retVal;
     }
     
+    // Results of overlayBlendChannel for every pair of channel values, indexed by under << 8 | over
+    private static final byte[] OVERLAY_TABLE = new byte[256 * 256];
+
+    static
+    {
+        for (int under = 0; under < 256; under++)
+        {
+            for (int over = 0; over < 256; over++)
+            {
+                OVERLAY_TABLE[under << 8 | over] = (byte)overlayBlendChannel(under, over);
+            }
+        }
+    }
+
     public static int overlayBlend(int underColour, int overColour)
     {
-        int r = overlayBlendChannel((underColour >> 16) & 255, (overColour >> 16) & 255);
-        int g = overlayBlendChannel((underColour >> 8) & 255, (overColour >> 8) & 255);
-        int b = overlayBlendChannel(underColour & 255, overColour & 255);
+        int r = OVERLAY_TABLE[(underColour >> 8) & 0xFF00 | (overColour >> 16) & 255] & 255;
+        int g = OVERLAY_TABLE[underColour & 0xFF00 | (overColour >> 8) & 255] & 255;
+        int b = OVERLAY_TABLE[(underColour << 8) & 0xFF00 | overColour & 255] & 255;
         
-        return (r & 255) << 16 | (g & 255) << 8 | (b & 255);
+        return r << 16 | g << 8 | b;
     }
 
     public static int mixColours(int a, int b, float ratio) {
@@ -54,27 +68,45 @@ public class SeasonColorUtil
         } else if (ratio < 0f) {
             ratio = 0f;
         }
-        float iRatio = 1.0f - ratio;
-
-        int aA = (a >> 24 & 0xff);
-        int aR = ((a & 0xff0000) >> 16);
-        int aG = ((a & 0xff00) >> 8);
-        int aB = (a & 0xff);
 
-        int bA = (b >> 24 & 0xff);
-        int bR = ((b & 0xff0000) >> 16);
-        int bG = ((b & 0xff00) >> 8);
-        int bB = (b & 0xff);
+        // 16.16 fixed point weights
+        int bWeight = (int)(ratio * 65536.0F);
+        int aWeight = 65536 - bWeight;
 
-        int A = (int)((aA * iRatio) + (bA * ratio));
-        int R = (int)((aR * iRatio) + (bR * ratio));
-        int G = (int)((aG * iRatio) + (bG * ratio));
-        int B = (int)((aB * iRatio) + (bB * ratio));
+        int A = ((a >>> 24) * aWeight + (b >>> 24) * bWeight) >>> 16;
+        int R = ((a >> 16 & 0xff) * aWeight + (b >> 16 & 0xff) * bWeight) >>> 16;
+        int G = ((a >> 8 & 0xff) * aWeight + (b >> 8 & 0xff) * bWeight) >>> 16;
+        int B = ((a & 0xff) * aWeight + (b & 0xff) * bWeight) >>> 16;
 
         return A << 24 | R << 16 | G << 8 | B;
     }
     
     public static int saturateColour(int colour, float saturationMultiplier)
+    {
+        // Scaling the saturation leaves the value (the largest channel) unchanged and scales the distance of
+        // every other channel from it, so the conversion to and from HSV can be skipped entirely
+        if (saturationMultiplier < 0.0F || saturationMultiplier > 1.0F)
+            return saturateColourHSV(colour, saturationMultiplier);
+
+        int r = (colour >> 16) & 255;
+        int g = (colour >> 8) & 255;
+        int b = colour & 255;
+        int max = Math.max(r, Math.max(g, b));
+        int multiplier = (int)(saturationMultiplier * 65536.0F);
+
+        // Round towards the value the HSV conversion would truncate to
+        r = max - (((max - r) * multiplier + 65535) >> 16);
+        g = max - (((max - g) * multiplier + 65535) >> 16);
+        b = max - (((max - b) * multiplier + 65535) >> 16);
+
+        return r << 16 | g << 8 | b;
+    }
+
+    /**
+     * Saturates a colour by converting it to HSV and back. Used for multipliers outside of 0-1, for which
+     * the HSV conversion doesn't preserve the value.
+     */
+    public static int saturateColourHSV(int colour, float saturationMultiplier)
     {
         Color newColor = new Color(colour);
         double[] hsv = newColor.toHSV();
@@ -84,9 +116,14 @@ public class SeasonColorUtil
     }
     
     public static int applySeasonalGrassColouring(ISeasonColorProvider colorProvider, Holder<Biome> biome, int originalColour)
+    {
+        return applySeasonalGrassColouring(colorProvider, BiomeSeasonTable.getFlags(biome), originalColour);
+    }
+
+    public static int applySeasonalGrassColouring(ISeasonColorProvider colorProvider, int biomeFlags, int originalColour)
     {
         ResourceKey<Level> dimension = Minecraft.getInstance().level.dimension();
-        if (biome.is(ModTags.Biomes.BLACKLISTED_BIOMES) || !ServerConfig.isDimensionWhitelisted(dimension)) {
+        if ((biomeFlags & BiomeSeasonTable.BLACKLISTED) != 0 || !ServerConfig.isDimensionWhitelisted(dimension)) {
             return originalColour;
         }
 
@@ -99,7 +136,7 @@ public class SeasonColorUtil
     	}
         int newColour = overlay == 0xFFFFFF ? originalColour : overlayBlend(originalColour, overlay);
         int fixedColour = newColour;
-        if (biome.is(ModTags.Biomes.LESSER_COLOR_CHANGE_BIOMES))
+        if ((biomeFlags & BiomeSeasonTable.LESSER_COLOR_CHANGE) != 0)
         {
             fixedColour = mixColours(newColour, originalColour, 0.75F);
         }
@@ -108,9 +145,14 @@ public class SeasonColorUtil
     }
     
     public static int applySeasonalFoliageColouring(ISeasonColorProvider colorProvider, Holder<Biome> biome, int originalColour)
+    {
+        return applySeasonalFoliageColouring(colorProvider, BiomeSeasonTable.getFlags(biome), originalColour);
+    }
+
+    public static int applySeasonalFoliageColouring(ISeasonColorProvider colorProvider, int biomeFlags, int originalColour)
     {
         ResourceKey<Level> dimension = Minecraft.getInstance().level.dimension();
-        if (biome.is(ModTags.Biomes.BLACKLISTED_BIOMES) || !ServerConfig.isDimensionWhitelisted(dimension))
+        if ((biomeFlags & BiomeSeasonTable.BLACKLISTED) != 0 || !ServerConfig.isDimensionWhitelisted(dimension))
             return originalColour;
 
         int overlay = colorProvider.getFoliageOverlay();
@@ -122,7 +164,7 @@ public class SeasonColorUtil
     	}
         int newColour = overlay == 0xFFFFFF ? originalColour : overlayBlend(originalColour, overlay);
         int fixedColour = newColour;
-        if (biome.is(ModTags.Biomes.LESSER_COLOR_CHANGE_BIOMES))
+        if ((biomeFlags & BiomeSeasonTable.LESSER_COLOR_CHANGE) != 0)
         {
             fixedColour = mixColours(newColour, originalColour, 0.75F);
         }
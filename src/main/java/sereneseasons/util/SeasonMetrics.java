@@ -0,0 +1,569 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.util;
+
+import com.google.gson.JsonObject;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelReader;
+import net.minecraft.world.level.WorldGenLevel;
+import sereneseasons.core.SereneSeasons;
+
+import javax.annotation.Nullable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Optional counters and timings for the mod's hot paths. While nothing is being collected each probe costs a single
+ * volatile read. Otherwise every call is counted, and a sample of calls is timed into a histogram with power of two
+ * buckets.
+ *
+ * Metrics are collected globally while enabled, and per dimension while a {@link Sample} is running. Probes are used
+ * in pairs, passing the result of {@link #start} to {@link #stop}:
+ * <pre>
+ *     long start = SeasonMetrics.start(SeasonMetrics.Probe.SHOULD_SNOW, level);
+ *     ...
+ *     SeasonMetrics.stop(SeasonMetrics.Probe.SHOULD_SNOW, level, start);
+ * </pre>
+ */
+public final class SeasonMetrics
+{
+    // One in this many calls is timed
+    private static final int SAMPLE_INTERVAL = 64;
+    private static final int BUCKETS = 64;
+
+    private static final Stats globalStats = new Stats();
+    private static volatile boolean enabled;
+    private static volatile long enabledSince;
+    @Nullable
+    private static volatile Sample sample;
+
+    // Whether metrics are enabled or a sample is running, so idle probes only need to read one field
+    private static volatile boolean collecting;
+
+    public enum Probe
+    {
+        SHOULD_SNOW("should_snow", true),
+        SHOULD_FREEZE("should_freeze", true),
+        IS_RAINING_AT("is_raining_at", true),
+        TICK_ICE_AND_SNOW_PRECIPITATION("tick_ice_and_snow_precipitation", true),
+        RENDER_PRECIPITATION("render_precipitation", true),
+        MELT_ROLL("melt_roll", false),
+        CATCH_UP_MELT("catch_up_melt", false),
+        CROP_GROWTH("crop_growth", false),
+        BONEMEAL("bonemeal", false),
+        FERTILITY_CHECK("fertility_check", false),
+        SEASON_SYNC("season_sync", false);
+
+        private final String name;
+        private final boolean hook;
+
+        Probe(String name, boolean hook)
+        {
+            this.name = name;
+            this.hook = hook;
+        }
+
+        public String getName()
+        {
+            return this.name;
+        }
+
+        /**
+         * Gets whether this probe measures a hook patched into the game.
+         */
+        public boolean isHook()
+        {
+            return this.hook;
+        }
+    }
+
+    public enum Counter
+    {
+        MELT_CHUNKS_VISITED("melt_chunks_visited"),
+        BLOCKS_MELTED("blocks_melted"),
+        FERTILE_CHECKS("fertile_checks"),
+        INFERTILE_CHECKS("infertile_checks"),
+        SYNC_PACKETS("sync_packets"),
+        SYNC_PAYLOAD_BYTES("sync_payload_bytes");
+
+        private final String name;
+
+        Counter(String name)
+        {
+            this.name = name;
+        }
+
+        public String getName()
+        {
+            return this.name;
+        }
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Gets whether metrics are being collected at all, for callers which need to do extra work to measure something.
+     */
+    public static boolean isCollecting()
+    {
+        return collecting;
+    }
+
+    public static void setEnabled(boolean enable)
+    {
+        if (enable && !enabled)
+        {
+            reset();
+        }
+
+        enabled = enable;
+        updateCollecting();
+    }
+
+    public static void reset()
+    {
+        globalStats.reset();
+        enabledSince = System.nanoTime();
+    }
+
+    private static void updateCollecting()
+    {
+        collecting = enabled || sample != null;
+    }
+
+    /**
+     * Counts a call to a probe, returning the time it started if it should be timed, or 0 otherwise.
+     */
+    public static long start(Probe probe, @Nullable LevelReader level)
+    {
+        if (!collecting)
+            return 0L;
+
+        if (enabled)
+        {
+            globalStats.getProbe(probe).calls.increment();
+        }
+
+        Stats dimensionStats = getSampleStats(level);
+
+        if (dimensionStats != null)
+        {
+            dimensionStats.getProbe(probe).calls.increment();
+        }
+
+        return ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL) == 0 ? System.nanoTime() : 0L;
+    }
+
+    public static void stop(Probe probe, @Nullable LevelReader level, long startTime)
+    {
+        if (startTime == 0L)
+            return;
+
+        long nanos = Math.max(System.nanoTime() - startTime, 0L);
+
+        if (enabled)
+        {
+            globalStats.getProbe(probe).record(nanos);
+        }
+
+        Stats dimensionStats = getSampleStats(level);
+
+        if (dimensionStats != null)
+        {
+            dimensionStats.getProbe(probe).record(nanos);
+        }
+    }
+
+    public static void count(Counter counter, @Nullable LevelReader level, long amount)
+    {
+        if (!collecting)
+            return;
+
+        if (enabled)
+        {
+            globalStats.getCounter(counter).add(amount);
+        }
+
+        Stats dimensionStats = getSampleStats(level);
+
+        if (dimensionStats != null)
+        {
+            dimensionStats.getCounter(counter).add(amount);
+        }
+    }
+
+    @Nullable
+    private static Stats getSampleStats(@Nullable LevelReader level)
+    {
+        Sample currentSample = sample;
+
+        // Samples report what seasons cost the server, so work done for the client in singleplayer or LAN is left out
+        if (currentSample == null || level == null || level.isClientSide())
+            return null;
+
+        ResourceKey<Level> dimension = null;
+
+        if (level instanceof Level) dimension = ((Level)level).dimension();
+        else if (level instanceof WorldGenLevel) dimension = ((WorldGenLevel)level).getLevel().dimension();
+
+        return dimension != null ? currentSample.getStats(dimension) : null;
+    }
+
+    /**
+     * Begins sampling metrics per dimension, replacing any sample already running.
+     *
+     * @param durationTicks the number of server ticks to sample for
+     * @param onComplete called on the server thread once the sample has finished
+     */
+    public static void startSample(int durationTicks, Consumer<Sample> onComplete)
+    {
+        sample = new Sample(durationTicks, onComplete);
+        updateCollecting();
+    }
+
+    public static boolean isSampling()
+    {
+        return sample != null;
+    }
+
+    /**
+     * Called at the end of every server tick to finish the running sample once it has lasted long enough.
+     */
+    public static void onServerTick()
+    {
+        Sample currentSample = sample;
+
+        if (currentSample == null || ++currentSample.elapsedTicks < currentSample.durationTicks)
+            return;
+
+        sample = null;
+        updateCollecting();
+        currentSample.finish();
+    }
+
+    /**
+     * Logs a summary of every probe which has been called.
+     */
+    public static void log()
+    {
+        StringBuilder builder = new StringBuilder("Serene Seasons metrics:");
+
+        for (String line : describe())
+        {
+            builder.append("\n  ").append(line);
+        }
+
+        SereneSeasons.LOGGER.info(builder.toString());
+    }
+
+    /**
+     * Summarises each probe which has been called since metrics were enabled, one per line.
+     */
+    public static List<String> describe()
+    {
+        return globalStats.describeProbes(getSeconds(enabledSince, System.nanoTime()));
+    }
+
+    private static double getSeconds(long fromNanos, long toNanos)
+    {
+        return Math.max((toNanos - fromNanos) / 1.0E9, 1.0E-3);
+    }
+
+    private static String formatNanos(long nanos)
+    {
+        if (nanos == Long.MAX_VALUE) return "inf";
+        if (nanos < 10_000L) return nanos + "ns";
+        if (nanos < 10_000_000L) return (nanos / 1_000L) + "us";
+        return (nanos / 1_000_000L) + "ms";
+    }
+
+    public static final class ProbeStats
+    {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder sampledNanos = new LongAdder();
+        // Sampled call durations, bucketed by the position of their highest set bit
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+        private void record(long nanos)
+        {
+            this.sampledNanos.add(nanos);
+            this.histogram.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(nanos | 1L));
+        }
+
+        private void reset()
+        {
+            this.calls.reset();
+            this.sampledNanos.reset();
+
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                this.histogram.set(i, 0);
+            }
+        }
+
+        public long getCalls()
+        {
+            return this.calls.sum();
+        }
+
+        public long getSamples()
+        {
+            long samples = 0;
+
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                samples += this.histogram.get(i);
+            }
+
+            return samples;
+        }
+
+        public long getMeanNanos()
+        {
+            long samples = this.getSamples();
+            return samples > 0 ? this.sampledNanos.sum() / samples : 0L;
+        }
+
+        /**
+         * Gets the upper bound of the histogram bucket containing the given percentile of sampled calls.
+         */
+        public long getPercentileNanos(double percentile)
+        {
+            long samples = this.getSamples();
+
+            if (samples == 0)
+                return 0L;
+
+            long target = Math.max((long)Math.ceil(samples * percentile), 1L);
+            long seen = 0;
+
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                seen += this.histogram.get(i);
+
+                if (seen >= target)
+                    return i >= 62 ? Long.MAX_VALUE : 1L << (i + 1);
+            }
+
+            return Long.MAX_VALUE;
+        }
+
+        @Nullable
+        private String describe(String name, double seconds)
+        {
+            long calls = this.getCalls();
+
+            if (calls == 0)
+                return null;
+
+            String rate = String.format(Locale.ROOT, "%s: %d calls (%.1f/s)", name, calls, calls / seconds);
+
+            if (this.getSamples() == 0)
+                return rate;
+
+            return rate + String.format(Locale.ROOT, ", mean %s, p50 < %s, p99 < %s, max < %s", formatNanos(this.getMeanNanos()),
+                formatNanos(this.getPercentileNanos(0.5)), formatNanos(this.getPercentileNanos(0.99)), formatNanos(this.getPercentileNanos(1.0)));
+        }
+
+        private JsonObject toJson()
+        {
+            JsonObject json = new JsonObject();
+            json.addProperty("calls", this.getCalls());
+            json.addProperty("samples", this.getSamples());
+            json.addProperty("mean_nanos", this.getMeanNanos());
+            json.addProperty("p50_nanos", this.getPercentileNanos(0.5));
+            json.addProperty("p99_nanos", this.getPercentileNanos(0.99));
+            json.addProperty("max_nanos", this.getPercentileNanos(1.0));
+            return json;
+        }
+    }
+
+    public static final class Stats
+    {
+        private final ProbeStats[] probes = new ProbeStats[Probe.values().length];
+        private final LongAdder[] counters = new LongAdder[Counter.values().length];
+
+        private Stats()
+        {
+            for (int i = 0; i < this.probes.length; i++) this.probes[i] = new ProbeStats();
+            for (int i = 0; i < this.counters.length; i++) this.counters[i] = new LongAdder();
+        }
+
+        private void reset()
+        {
+            for (ProbeStats probe : this.probes) probe.reset();
+            for (LongAdder counter : this.counters) counter.reset();
+        }
+
+        public ProbeStats getProbe(Probe probe)
+        {
+            return this.probes[probe.ordinal()];
+        }
+
+        private LongAdder getCounter(Counter counter)
+        {
+            return this.counters[counter.ordinal()];
+        }
+
+        public long getCount(Counter counter)
+        {
+            return this.getCounter(counter).sum();
+        }
+
+        public long getHookCalls()
+        {
+            long calls = 0;
+
+            for (Probe probe : Probe.values())
+            {
+                if (probe.isHook()) calls += this.getProbe(probe).getCalls();
+            }
+
+            return calls;
+        }
+
+        private List<String> describeProbes(double seconds)
+        {
+            List<String> lines = new ArrayList<>();
+
+            for (Probe probe : Probe.values())
+            {
+                String line = this.getProbe(probe).describe(probe.getName(), seconds);
+
+                if (line != null)
+                {
+                    lines.add(line);
+                }
+            }
+
+            return lines;
+        }
+
+        private JsonObject toJson()
+        {
+            JsonObject counters = new JsonObject();
+            JsonObject probes = new JsonObject();
+
+            for (Counter counter : Counter.values())
+            {
+                counters.addProperty(counter.getName(), this.getCount(counter));
+            }
+
+            counters.addProperty("hook_calls", this.getHookCalls());
+
+            for (Probe probe : Probe.values())
+            {
+                if (this.getProbe(probe).getCalls() > 0)
+                {
+                    probes.add(probe.getName(), this.getProbe(probe).toJson());
+                }
+            }
+
+            JsonObject json = new JsonObject();
+            json.add("counters", counters);
+            json.add("probes", probes);
+            return json;
+        }
+    }
+
+    /**
+     * Metrics collected separately for each dimension over a fixed number of server ticks.
+     */
+    public static final class Sample
+    {
+        private final int durationTicks;
+        private final Consumer<Sample> onComplete;
+        private final Instant startInstant = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private final Map<ResourceKey<Level>, Stats> dimensions = new ConcurrentHashMap<>();
+        private long endNanos;
+        private int elapsedTicks;
+
+        private Sample(int durationTicks, Consumer<Sample> onComplete)
+        {
+            this.durationTicks = durationTicks;
+            this.onComplete = onComplete;
+        }
+
+        private Stats getStats(ResourceKey<Level> dimension)
+        {
+            return this.dimensions.computeIfAbsent(dimension, key -> new Stats());
+        }
+
+        private void finish()
+        {
+            this.endNanos = System.nanoTime();
+            this.onComplete.accept(this);
+        }
+
+        public double getSeconds()
+        {
+            return SeasonMetrics.getSeconds(this.startNanos, this.endNanos);
+        }
+
+        private List<Map.Entry<ResourceKey<Level>, Stats>> getSortedDimensions()
+        {
+            List<Map.Entry<ResourceKey<Level>, Stats>> entries = new ArrayList<>(this.dimensions.entrySet());
+            entries.sort(Comparator.comparing(entry -> entry.getKey().location().toString()));
+            return entries;
+        }
+
+        /**
+         * Summarises the sample, with a line for each dimension followed by a line for each probe called in it.
+         */
+        public List<String> describe()
+        {
+            List<String> lines = new ArrayList<>();
+
+            for (Map.Entry<ResourceKey<Level>, Stats> entry : this.getSortedDimensions())
+            {
+                Stats stats = entry.getValue();
+
+                lines.add(String.format(Locale.ROOT, "%s: %d melt chunks visited, %d melt rolls, %d blocks melted, %d hook calls, %d/%d fertile/infertile crop checks, %d sync packets (%d bytes)",
+                    entry.getKey().location(), stats.getCount(Counter.MELT_CHUNKS_VISITED), stats.getProbe(Probe.MELT_ROLL).getCalls(), stats.getCount(Counter.BLOCKS_MELTED),
+                    stats.getHookCalls(), stats.getCount(Counter.FERTILE_CHECKS), stats.getCount(Counter.INFERTILE_CHECKS), stats.getCount(Counter.SYNC_PACKETS),
+                    stats.getCount(Counter.SYNC_PAYLOAD_BYTES)));
+
+                for (String line : stats.describeProbes(this.getSeconds()))
+                {
+                    lines.add("  " + line);
+                }
+            }
+
+            return lines;
+        }
+
+        public JsonObject toJson()
+        {
+            JsonObject dimensions = new JsonObject();
+
+            for (Map.Entry<ResourceKey<Level>, Stats> entry : this.getSortedDimensions())
+            {
+                dimensions.add(entry.getKey().location().toString(), entry.getValue().toJson());
+            }
+
+            JsonObject json = new JsonObject();
+            json.addProperty("started", this.startInstant.toString());
+            json.addProperty("duration_ticks", this.durationTicks);
+            json.addProperty("duration_seconds", this.getSeconds());
+            json.addProperty("sample_interval", SAMPLE_INTERVAL);
+            json.add("dimensions", dimensions);
+            return json;
+        }
+    }
+}
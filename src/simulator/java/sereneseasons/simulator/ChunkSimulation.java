@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.util.Mth;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.biome.Biome;
+import sereneseasons.api.season.Season;
+import sereneseasons.config.FertilityConfig;
+import sereneseasons.init.ModFertility;
+import sereneseasons.season.BiomeSeasonTable;
+import sereneseasons.season.SeasonHooks;
+
+import java.util.List;
+
+/**
+ * Simulates the snow and ice on the surface of a single chunk. Rather than stepping through every tick, the number of
+ * precipitation checks and melt rolls in each slice of the schedule is computed up front, with the fractional part
+ * resolved randomly so the average rate matches the level's. Each is then applied to a random column, as in game.
+ */
+public final class ChunkSimulation
+{
+    // The level checks each chunk for precipitation on one tick in this many
+    private static final int PRECIPITATION_INTERVAL = 16;
+    private static final float RAIN_TEMPERATURE = 0.15F;
+    private static final int SUB_SEASONS = Season.SubSeason.VALUES.length;
+
+    private final SimulatedChunk chunk;
+    private final byte[] cover = new byte[256];
+    // Whether each column is too cold for rain, indexed by sub season ordinal * 256 + column
+    private final boolean[] coldGround = new boolean[SUB_SEASONS * 256];
+    private final boolean[] coldAir = new boolean[SUB_SEASONS * 256];
+    private final boolean[] meltable = new boolean[256];
+
+    private ChunkSimulation(SimulatedChunk chunk)
+    {
+        this.chunk = chunk;
+        System.arraycopy(chunk.initialCover, 0, this.cover, 0, 256);
+    }
+
+    /**
+     * @param meltRollsPerTick the expected number of melt rolls in a chunk per tick, indexed by sub season ordinal
+     * @param seasonalWeather whether seasons affect the temperatures used for snow and ice
+     * @param seasonalCrops whether seasons affect crops, as they do in whitelisted dimensions
+     */
+    public static void simulate(SimulatedChunk chunk, SeasonSchedule schedule, float[] meltRollsPerTick, boolean seasonalWeather, boolean seasonalCrops, List<CropProfile> crops, long seed, SimulationResult result)
+    {
+        ChunkSimulation simulation = new ChunkSimulation(chunk);
+        simulation.computeColumns(seasonalWeather, seasonalCrops, crops, result);
+        simulation.run(schedule, meltRollsPerTick, RandomSource.create(Mth.getSeed(chunk.x, 0, chunk.z) ^ seed), result);
+    }
+
+    private void computeColumns(boolean seasonalWeather, boolean seasonalCrops, List<CropProfile> crops, SimulationResult result)
+    {
+        BlockPos.MutableBlockPos groundPos = new BlockPos.MutableBlockPos();
+        BlockPos.MutableBlockPos airPos = new BlockPos.MutableBlockPos();
+
+        for (int column = 0; column < 256; column++)
+        {
+            Holder<Biome> biome = this.chunk.biomes[column];
+            int flags = BiomeSeasonTable.getFlags(biome);
+            boolean land = this.chunk.surface[column] == SimulatedChunk.LAND;
+
+            groundPos.set(this.chunk.getBlockX(column), this.chunk.groundY[column], this.chunk.getBlockZ(column));
+            airPos.set(groundPos.getX(), groundPos.getY() + 1, groundPos.getZ());
+
+            // Blacklisted biomes are skipped by the melt rolls entirely
+            this.meltable[column] = (flags & BiomeSeasonTable.BLACKLISTED) == 0;
+
+            if (land) result.landColumns++;
+            else result.waterColumns++;
+
+            for (Season.SubSeason subSeason : Season.SubSeason.VALUES)
+            {
+                int index = subSeason.ordinal() * 256 + column;
+                this.coldGround[index] = getTemperature(subSeason, biome, groundPos, seasonalWeather) < RAIN_TEMPERATURE;
+                this.coldAir[index] = getTemperature(subSeason, biome, airPos, seasonalWeather) < RAIN_TEMPERATURE;
+
+                if (!land)
+                    continue;
+
+                for (int crop = 0; crop < crops.size(); crop++)
+                {
+                    if (isCropFertile(crops.get(crop).seasons, flags, seasonalCrops, subSeason.getSeason(), biome, groundPos))
+                    {
+                        result.fertileColumns[crop][subSeason.ordinal()]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private static float getTemperature(Season.SubSeason subSeason, Holder<Biome> biome, BlockPos pos, boolean seasonal)
+    {
+        return seasonal ? SeasonHooks.getBiomeTemperatureInSeason(subSeason, biome, pos) : biome.value().getTemperature(pos);
+    }
+
+    /**
+     * Mirrors {@link ModFertility#isCropFertile} for a crop on the surface, which always sees the sky.
+     */
+    private static boolean isCropFertile(int cropSeasons, int biomeFlags, boolean seasonal, Season season, Holder<Biome> biome, BlockPos pos)
+    {
+        if ((biomeFlags & BiomeSeasonTable.INFERTILE) != 0)
+            return false;
+
+        if (!FertilityConfig.seasonalCrops.get() || (biomeFlags & BiomeSeasonTable.BLACKLISTED) != 0 || !seasonal)
+            return true;
+
+        return ModFertility.isCropFertileInSeason(cropSeasons, biomeFlags, season, biome, pos);
+    }
+
+    private void run(SeasonSchedule schedule, float[] meltRollsPerTick, RandomSource random, SimulationResult result)
+    {
+        for (int slice = 0; slice < schedule.getSliceCount(); slice++)
+        {
+            int subSeason = schedule.getSubSeason(slice);
+            int ticks = schedule.getTicks(slice);
+            int rainTicks = schedule.getRainTicks(slice);
+            int checks = getCount(ticks / (float)PRECIPITATION_INTERVAL, random);
+            int rolls = getCount(ticks * meltRollsPerTick[subSeason], random);
+
+            // Interleave the checks and rolls so neither consistently wins within a slice
+            for (int performedChecks = 0, performedRolls = 0; performedChecks < checks || performedRolls < rolls;)
+            {
+                if (performedRolls >= rolls || (performedChecks < checks && random.nextInt(checks + rolls) < checks))
+                {
+                    this.checkPrecipitation(subSeason, random.nextInt(ticks) < rainTicks, random.nextInt(256), result);
+                    performedChecks++;
+                }
+                else
+                {
+                    this.rollMelt(subSeason, random.nextInt(256), result);
+                    performedRolls++;
+                }
+            }
+
+            if (schedule.endsDay(slice))
+            {
+                this.recordCoverage(schedule.getDay(slice), result);
+            }
+        }
+    }
+
+    private static int getCount(float expected, RandomSource random)
+    {
+        int count = Mth.floor(expected);
+        return random.nextFloat() < expected - count ? count + 1 : count;
+    }
+
+    private void checkPrecipitation(int subSeason, boolean raining, int column, SimulationResult result)
+    {
+        int index = subSeason * 256 + column;
+        result.precipitationChecks[subSeason]++;
+
+        // Freezing is always checked, while snow and the precipitation type are only checked when raining
+        result.hookCalls[subSeason] += raining ? 3 : 1;
+
+        if (this.cover[column] != SimulatedChunk.BARE)
+            return;
+
+        if (this.chunk.surface[column] == SimulatedChunk.WATER)
+        {
+            if (this.coldGround[index] && this.isAtWaterEdge(column))
+            {
+                this.cover[column] = SimulatedChunk.ICE;
+                result.iceFormed[subSeason]++;
+            }
+        }
+        else if (raining && this.coldAir[index])
+        {
+            this.cover[column] = SimulatedChunk.SNOW;
+            result.snowPlaced[subSeason]++;
+        }
+    }
+
+    /**
+     * Gets whether water is next to something other than water, which it must be to freeze. Columns outside the
+     * chunk are assumed to be water, so large bodies of water freeze from the shores within each chunk.
+     */
+    private boolean isAtWaterEdge(int column)
+    {
+        int x = column & 15;
+        int z = column >> 4;
+
+        return (x > 0 && !this.isOpenWater(column - 1)) || (x < 15 && !this.isOpenWater(column + 1))
+            || (z > 0 && !this.isOpenWater(column - 16)) || (z < 15 && !this.isOpenWater(column + 16));
+    }
+
+    private boolean isOpenWater(int column)
+    {
+        return this.chunk.surface[column] == SimulatedChunk.WATER && this.cover[column] == SimulatedChunk.BARE;
+    }
+
+    private void rollMelt(int subSeason, int column, SimulationResult result)
+    {
+        result.meltRolls[subSeason]++;
+
+        byte cover = this.cover[column];
+
+        if (cover == SimulatedChunk.BARE || !this.meltable[column])
+            return;
+
+        result.hookCalls[subSeason]++;
+
+        if (this.coldGround[subSeason * 256 + column])
+            return;
+
+        this.cover[column] = SimulatedChunk.BARE;
+
+        if (cover == SimulatedChunk.SNOW) result.snowMelted[subSeason]++;
+        else result.iceMelted[subSeason]++;
+    }
+
+    private void recordCoverage(int day, SimulationResult result)
+    {
+        for (int column = 0; column < 256; column++)
+        {
+            if (this.cover[column] == SimulatedChunk.SNOW) result.snowCoverage[day]++;
+            else if (this.cover[column] == SimulatedChunk.ICE) result.iceCoverage[day]++;
+        }
+    }
+}
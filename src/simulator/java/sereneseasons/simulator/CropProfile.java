@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import sereneseasons.api.season.Season;
+
+import java.util.Locale;
+
+/**
+ * A kind of crop to estimate the fertility of, described by the seasons it grows in.
+ */
+public final class CropProfile
+{
+    public final String name;
+    // A bitmask of the ordinals of the seasons the crop is fertile in, with 0 for crops which aren't listed in any
+    public final int seasons;
+
+    public CropProfile(String name, int seasons)
+    {
+        this.name = name;
+        this.seasons = seasons;
+    }
+
+    /**
+     * Parses a profile such as {@code wheat=spring,summer,autumn}. Crops with no seasons behave like those which
+     * aren't in any of the seasonal crop tags.
+     */
+    public static CropProfile parse(String value)
+    {
+        int separator = value.indexOf('=');
+        String name = separator >= 0 ? value.substring(0, separator) : value;
+        String seasonList = separator >= 0 ? value.substring(separator + 1) : "";
+        int seasons = 0;
+
+        for (String season : seasonList.split(","))
+        {
+            if (!season.isBlank())
+            {
+                seasons |= 1 << Season.valueOf(season.trim().toUpperCase(Locale.ROOT)).ordinal();
+            }
+        }
+
+        if (name.isBlank())
+            throw new IllegalArgumentException("Crop profile " + value + " has no name");
+
+        return new CropProfile(name, seasons);
+    }
+}
@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.QuartPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+import net.minecraft.util.Mth;
+import net.minecraft.util.SimpleBitStorage;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.storage.RegionFile;
+import sereneseasons.core.SereneSeasons;
+
+import javax.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Reads the surface of fully generated chunks from a world's region files. Only the motion blocking heightmap, the
+ * blocks at and above it, and the biomes there are read.
+ */
+public final class RegionChunkReader
+{
+    private static final Pattern REGION_NAME = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.mca");
+
+    private final SimulatorSetup setup;
+    private final int minY;
+    private final int height;
+    private final AtomicInteger unknownBiomes = new AtomicInteger();
+
+    /**
+     * @param minY the minimum build height of the dimension the regions belong to
+     * @param height the build height of the dimension the regions belong to
+     */
+    public RegionChunkReader(SimulatorSetup setup, int minY, int height)
+    {
+        this.setup = setup;
+        this.minY = minY;
+        this.height = height;
+    }
+
+    /**
+     * Reads every chunk in a region file, or in every region file in a directory, spreading the files across the
+     * given executor.
+     */
+    public List<SimulatedChunk> read(Path path, ExecutorService executor) throws IOException, InterruptedException
+    {
+        List<Path> files;
+
+        if (Files.isDirectory(path))
+        {
+            try (Stream<Path> stream = Files.list(path))
+            {
+                files = stream.filter(file -> REGION_NAME.matcher(file.getFileName().toString()).matches()).sorted().toList();
+            }
+        }
+        else
+        {
+            files = List.of(path);
+        }
+
+        List<Callable<List<SimulatedChunk>>> tasks = new ArrayList<>();
+
+        for (Path file : files)
+        {
+            tasks.add(() -> this.readRegion(file));
+        }
+
+        List<SimulatedChunk> chunks = new ArrayList<>();
+
+        for (Future<List<SimulatedChunk>> future : executor.invokeAll(tasks))
+        {
+            try
+            {
+                chunks.addAll(future.get());
+            }
+            catch (ExecutionException e)
+            {
+                throw new IOException("Failed to read region", e.getCause());
+            }
+        }
+
+        if (this.unknownBiomes.get() > 0)
+        {
+            SereneSeasons.LOGGER.warn("{} columns had unknown biomes and were treated as plains", this.unknownBiomes.get());
+        }
+
+        return chunks;
+    }
+
+    private List<SimulatedChunk> readRegion(Path file) throws IOException
+    {
+        Matcher matcher = REGION_NAME.matcher(file.getFileName().toString());
+
+        if (!matcher.matches())
+            throw new IOException("Unexpected region file name " + file);
+
+        int regionX = Integer.parseInt(matcher.group(1));
+        int regionZ = Integer.parseInt(matcher.group(2));
+        List<SimulatedChunk> chunks = new ArrayList<>();
+
+        try (RegionFile region = new RegionFile(file, file.getParent(), false))
+        {
+            for (int localZ = 0; localZ < 32; localZ++)
+            {
+                for (int localX = 0; localX < 32; localX++)
+                {
+                    ChunkPos pos = new ChunkPos((regionX << 5) + localX, (regionZ << 5) + localZ);
+                    CompoundTag tag;
+
+                    try (DataInputStream stream = region.getChunkDataInputStream(pos))
+                    {
+                        if (stream == null)
+                            continue;
+
+                        tag = NbtIo.read(stream);
+                    }
+
+                    try
+                    {
+                        SimulatedChunk chunk = this.readChunk(pos, tag);
+
+                        if (chunk != null)
+                        {
+                            chunks.add(chunk);
+                        }
+                    }
+                    catch (RuntimeException e)
+                    {
+                        SereneSeasons.LOGGER.warn("Skipping malformed chunk {} in {}: {}", pos, file.getFileName(), e.getMessage());
+                    }
+                }
+            }
+        }
+
+        return chunks;
+    }
+
+    @Nullable
+    private SimulatedChunk readChunk(ChunkPos pos, CompoundTag tag)
+    {
+        // Only fully generated chunks have their final surface
+        String status = tag.getString("Status");
+
+        if (!status.equals("minecraft:full") && !status.equals("full"))
+            return null;
+
+        long[] heightmap = tag.getCompound("Heightmaps").getLongArray("MOTION_BLOCKING");
+
+        if (heightmap.length == 0)
+            return null;
+
+        SimpleBitStorage heights = new SimpleBitStorage(Mth.ceillog2(this.height + 1), 256, heightmap);
+        Section[] sections = new Section[SectionPos.blockToSectionCoord(this.height)];
+        ListTag sectionTags = tag.getList("sections", Tag.TAG_COMPOUND);
+        int minSection = SectionPos.blockToSectionCoord(this.minY);
+
+        for (int i = 0; i < sectionTags.size(); i++)
+        {
+            CompoundTag sectionTag = sectionTags.getCompound(i);
+            int index = sectionTag.getByte("Y") - minSection;
+
+            if (index >= 0 && index < sections.length)
+            {
+                sections[index] = new Section(sectionTag);
+            }
+        }
+
+        SimulatedChunk chunk = new SimulatedChunk(pos.x, pos.z);
+
+        for (int column = 0; column < 256; column++)
+        {
+            int x = column & 15;
+            int z = column >> 4;
+            int groundY = heights.get(column) + this.minY - 1;
+            String ground = this.getBlock(sections, x, groundY, z);
+            String aboveGround = this.getBlock(sections, x, groundY + 1, z);
+
+            chunk.groundY[column] = groundY;
+            chunk.biomes[column] = this.getBiome(sections, x, groundY + 1, z);
+
+            if (ground.equals("minecraft:water") || ground.equals("minecraft:ice"))
+            {
+                chunk.surface[column] = SimulatedChunk.WATER;
+                chunk.initialCover[column] = ground.equals("minecraft:ice") ? SimulatedChunk.ICE : SimulatedChunk.BARE;
+            }
+            else
+            {
+                chunk.surface[column] = SimulatedChunk.LAND;
+                chunk.initialCover[column] = aboveGround.equals("minecraft:snow") ? SimulatedChunk.SNOW : SimulatedChunk.BARE;
+            }
+        }
+
+        return chunk;
+    }
+
+    private String getBlock(Section[] sections, int x, int y, int z)
+    {
+        Section section = this.getSection(sections, y);
+        return section != null ? section.getBlock(x, y & 15, z) : "minecraft:air";
+    }
+
+    private Holder<Biome> getBiome(Section[] sections, int x, int y, int z)
+    {
+        Section section = this.getSection(sections, Mth.clamp(y, this.minY, this.minY + this.height - 1));
+        String name = section != null ? section.getBiome(QuartPos.fromBlock(x), QuartPos.fromBlock(y & 15), QuartPos.fromBlock(z)) : null;
+        Holder<Biome> biome = name != null ? this.setup.getBiome(name) : null;
+
+        if (biome == null)
+        {
+            this.unknownBiomes.incrementAndGet();
+            return this.setup.getDefaultBiome();
+        }
+
+        return biome;
+    }
+
+    @Nullable
+    private Section getSection(Section[] sections, int y)
+    {
+        int index = SectionPos.blockToSectionCoord(y - this.minY);
+        return index >= 0 && index < sections.length ? sections[index] : null;
+    }
+
+    /**
+     * The block and biome palettes of a chunk section, as stored on disk.
+     */
+    private static final class Section
+    {
+        private final String[] blockPalette;
+        @Nullable
+        private final SimpleBitStorage blocks;
+        private final String[] biomePalette;
+        @Nullable
+        private final SimpleBitStorage biomes;
+
+        private Section(CompoundTag tag)
+        {
+            CompoundTag blockStates = tag.getCompound("block_states");
+            ListTag blockPaletteTag = blockStates.getList("palette", Tag.TAG_COMPOUND);
+            this.blockPalette = new String[blockPaletteTag.size()];
+
+            for (int i = 0; i < this.blockPalette.length; i++)
+            {
+                this.blockPalette[i] = blockPaletteTag.getCompound(i).getString("Name");
+            }
+
+            // Block states always use at least 4 bits per entry
+            this.blocks = this.blockPalette.length > 1 ? new SimpleBitStorage(Math.max(4, Mth.ceillog2(this.blockPalette.length)), 4096, blockStates.getLongArray("data")) : null;
+
+            CompoundTag biomes = tag.getCompound("biomes");
+            ListTag biomePaletteTag = biomes.getList("palette", Tag.TAG_STRING);
+            this.biomePalette = new String[biomePaletteTag.size()];
+
+            for (int i = 0; i < this.biomePalette.length; i++)
+            {
+                this.biomePalette[i] = biomePaletteTag.getString(i);
+            }
+
+            this.biomes = this.biomePalette.length > 1 ? new SimpleBitStorage(Mth.ceillog2(this.biomePalette.length), 64, biomes.getLongArray("data")) : null;
+        }
+
+        private String getBlock(int x, int y, int z)
+        {
+            if (this.blockPalette.length == 0)
+                return "minecraft:air";
+
+            return this.blockPalette[this.blocks != null ? this.blocks.get(y << 8 | z << 4 | x) : 0];
+        }
+
+        @Nullable
+        private String getBiome(int quartX, int quartY, int quartZ)
+        {
+            if (this.biomePalette.length == 0)
+                return null;
+
+            return this.biomePalette[this.biomes != null ? this.biomes.get(quartY << 4 | quartZ << 2 | quartX) : 0];
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import net.minecraft.util.RandomSource;
+import sereneseasons.api.season.Season;
+import sereneseasons.config.SeasonsConfig;
+import sereneseasons.season.SeasonTime;
+
+/**
+ * The sub season and weather over the course of a simulation, which are shared by every chunk. Time is split into
+ * slices of up to {@link #SLICE_TICKS} ticks, none of which span more than one day, and the weather is simulated
+ * tick by tick as the level would, recording how much of each slice it rained for.
+ */
+public final class SeasonSchedule
+{
+    public static final int SLICE_TICKS = 1000;
+
+    private final int days;
+    private final byte[] subSeasons;
+    private final int[] ticks;
+    private final int[] rainTicks;
+    private final int[] sliceDays;
+    private final long[] subSeasonTicks = new long[Season.SubSeason.VALUES.length];
+
+    private SeasonSchedule(int slices, int days)
+    {
+        this.days = days;
+        this.subSeasons = new byte[slices];
+        this.ticks = new int[slices];
+        this.rainTicks = new int[slices];
+        this.sliceDays = new int[slices];
+    }
+
+    /**
+     * @param startTicks the season cycle ticks to begin from, which should be the start of a day
+     * @param cycles the number of full season cycles to simulate
+     */
+    public static SeasonSchedule create(int startTicks, int cycles, RandomSource random)
+    {
+        int dayDuration = SeasonTime.ZERO.getDayDuration();
+        int cycleDuration = SeasonTime.ZERO.getCycleDuration();
+        int slicesPerDay = (dayDuration + SLICE_TICKS - 1) / SLICE_TICKS;
+        long totalTicks = (long)cycles * cycleDuration;
+        int days = (int)(totalTicks / dayDuration);
+        SeasonSchedule schedule = new SeasonSchedule(days * slicesPerDay, days);
+        boolean changeWeatherFrequency = SeasonsConfig.changeWeatherFrequency.get();
+
+        boolean raining = false;
+        int rainTime = 0;
+        int slice = -1;
+        Season.SubSeason subSeason = null;
+
+        for (long tick = 0; tick < totalTicks; tick++)
+        {
+            int dayTick = (int)(tick % dayDuration);
+
+            // Sub seasons are made up of whole days, so can only change at the start of a slice
+            if (dayTick % SLICE_TICKS == 0)
+            {
+                subSeason = new SeasonTime((int)((startTicks + tick) % cycleDuration)).getSubSeason();
+                slice++;
+                schedule.subSeasons[slice] = (byte)subSeason.ordinal();
+                schedule.sliceDays[slice] = (int)(tick / dayDuration);
+            }
+
+            // Mirrors the level's weather cycle, along with the adjustments made to it in winter and spring
+            if (changeWeatherFrequency && !raining)
+            {
+                if (subSeason.getSeason() == Season.WINTER && rainTime > 36000) rainTime = random.nextInt(24000) + 12000;
+                else if (subSeason.getSeason() == Season.SPRING && rainTime > 96000) rainTime = random.nextInt(84000) + 12000;
+            }
+
+            if (rainTime > 0)
+            {
+                if (--rainTime == 0)
+                {
+                    raining = !raining;
+                }
+            }
+            else
+            {
+                rainTime = raining ? random.nextInt(12001) + 12000 : random.nextInt(168001) + 12000;
+            }
+
+            schedule.ticks[slice]++;
+            schedule.subSeasonTicks[subSeason.ordinal()]++;
+
+            if (raining)
+            {
+                schedule.rainTicks[slice]++;
+            }
+        }
+
+        return schedule;
+    }
+
+    public int getSliceCount()
+    {
+        return this.ticks.length;
+    }
+
+    public int getDays()
+    {
+        return this.days;
+    }
+
+    public int getSubSeason(int slice)
+    {
+        return this.subSeasons[slice];
+    }
+
+    public int getTicks(int slice)
+    {
+        return this.ticks[slice];
+    }
+
+    public int getRainTicks(int slice)
+    {
+        return this.rainTicks[slice];
+    }
+
+    public int getDay(int slice)
+    {
+        return this.sliceDays[slice];
+    }
+
+    /**
+     * Gets whether a slice is the last of its day.
+     */
+    public boolean endsDay(int slice)
+    {
+        return slice + 1 >= this.ticks.length || this.sliceDays[slice + 1] != this.sliceDays[slice];
+    }
+
+    public long getSubSeasonTicks(Season.SubSeason subSeason)
+    {
+        return this.subSeasonTicks[subSeason.ordinal()];
+    }
+}
@@ -0,0 +1,399 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import sereneseasons.api.season.Season;
+import sereneseasons.config.SeasonsConfig;
+import sereneseasons.config.ServerConfig;
+import sereneseasons.core.SereneSeasons;
+import sereneseasons.season.SeasonHooks;
+import sereneseasons.season.SeasonTime;
+import sereneseasons.util.config.JsonUtil;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Predicts the snow, ice, melting and crop fertility of a world over whole season cycles without running the game, so
+ * the effects of changing the season length or melt chances can be seen before applying them to a server. Chunks are
+ * either read from a world's region files or generated as a synthetic grid, and simulated in parallel.
+ *
+ * Run with {@code ./gradlew runSimulator --args="..."}, passing {@code --help} for the available options.
+ */
+public final class SeasonSimulator
+{
+    private static final String USAGE = String.join("\n",
+        "Usage: SeasonSimulator [options]",
+        "  --server-config <file>     the world's serverconfig/sereneseasons-server.toml",
+        "  --seasons-config <file>    config/sereneseasons/seasons.toml",
+        "  --fertility-config <file>  config/sereneseasons/fertility.toml",
+        "  --region <file|dir>        simulate the chunks in a region file, or a directory of them",
+        "  --min-y <y>                the minimum build height of the region's dimension (default -64)",
+        "  --height <blocks>          the build height of the region's dimension (default 384)",
+        "  --grid <chunks>            simulate a synthetic square of chunks instead (default 32)",
+        "  --biomes <a,b,...>         the biomes of the synthetic grid, in bands from north to south",
+        "  --band-width <chunks>      the width of each biome band (default 4)",
+        "  --relief <blocks>          how far the synthetic terrain rises and falls (default 8)",
+        "  --crop <name=seasons>      a crop to estimate fertility for, e.g. wheat=spring,summer,autumn",
+        "  --cycles <count>           the number of season cycles to simulate (default 1)",
+        "  --threads <count>          the number of worker threads (default: all processors)",
+        "  --seed <seed>              the seed for weather and random rolls (default 0)",
+        "  --output <file>            also write the full results, including daily coverage, as JSON");
+
+    private static final List<String> DEFAULT_BIOMES = List.of("minecraft:plains", "minecraft:taiga", "minecraft:snowy_plains", "minecraft:savanna");
+    private static final List<String> DEFAULT_CROPS = List.of("spring=spring", "summer=summer", "autumn=autumn", "winter=winter", "unlisted=");
+    private static final int CHUNKS_PER_TASK = 64;
+    private static final int CALIBRATION_CALLS = 1 << 20;
+
+    public static void main(String[] args)
+    {
+        Options options;
+
+        try
+        {
+            options = Options.parse(args);
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (options.help)
+        {
+            System.out.println(USAGE);
+            return;
+        }
+
+        ExecutorService executor = createExecutor(options.threads);
+
+        try
+        {
+            run(options, executor);
+        }
+        catch (Exception e)
+        {
+            SereneSeasons.LOGGER.error("Simulation failed", e);
+            System.exit(1);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void run(Options options, ExecutorService executor) throws IOException, InterruptedException
+    {
+        SimulatorSetup setup = SimulatorSetup.init(options.serverConfig, options.seasonsConfig, options.fertilityConfig);
+        List<CropProfile> crops = new ArrayList<>();
+
+        for (String crop : options.crops.isEmpty() ? DEFAULT_CROPS : options.crops)
+        {
+            crops.add(CropProfile.parse(crop));
+        }
+
+        List<SimulatedChunk> chunks;
+
+        if (options.region != null)
+        {
+            chunks = new RegionChunkReader(setup, options.minY, options.height).read(options.region, executor);
+        }
+        else
+        {
+            List<Holder<Biome>> biomes = new ArrayList<>();
+
+            for (String name : options.biomes.isEmpty() ? DEFAULT_BIOMES : options.biomes)
+            {
+                Holder<Biome> biome = setup.getBiome(name);
+
+                if (biome == null)
+                    throw new IllegalArgumentException("Unknown biome " + name);
+
+                biomes.add(biome);
+            }
+
+            chunks = SyntheticGrid.create(options.grid, biomes, options.bandWidth, options.relief);
+        }
+
+        if (chunks.isEmpty())
+            throw new IOException("There are no chunks to simulate");
+
+        // Begin where new worlds do, picking a random sub season if they would
+        RandomSource random = RandomSource.create(options.seed);
+        int startingSubSeason = ServerConfig.startingSubSeason.get();
+        int startTicks = (startingSubSeason > 0 ? startingSubSeason - 1 : random.nextInt(Season.SubSeason.VALUES.length)) * SeasonTime.ZERO.getSubSeasonDuration();
+        SeasonSchedule schedule = SeasonSchedule.create(startTicks, options.cycles, random);
+
+        boolean seasonalCrops = ServerConfig.isDimensionWhitelisted(Level.OVERWORLD);
+        boolean seasonalWeather = seasonalCrops && SeasonsConfig.generateSnowAndIce.get();
+        float[] meltRollsPerTick = getMeltRollsPerTick(chunks.size(), seasonalWeather);
+        double hookNanos = measureHookNanos(chunks);
+
+        long startTime = System.nanoTime();
+        SimulationResult result = simulate(chunks, schedule, meltRollsPerTick, seasonalWeather, seasonalCrops, crops, options.seed, executor);
+        double wallSeconds = (System.nanoTime() - startTime) / 1.0E9;
+
+        printReport(result, schedule, chunks.size(), crops, hookNanos, wallSeconds, options.threads);
+
+        if (options.output != null)
+        {
+            Files.writeString(options.output, JsonUtil.SERIALIZER.toJson(result.toJson(schedule, chunks.size(), crops, hookNanos, wallSeconds)), StandardCharsets.UTF_8);
+            System.out.println("Wrote results to " + options.output.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Gets the expected melt rolls per chunk per tick in each sub season, limited by the maximum rolls per tick as the
+     * level would be with every chunk loaded.
+     */
+    private static float[] getMeltRollsPerTick(int chunks, boolean enabled)
+    {
+        float[] result = new float[Season.SubSeason.VALUES.length];
+
+        if (!enabled)
+            return result;
+
+        int budget = ServerConfig.maxMeltRollsPerTick.get();
+
+        for (Season.SubSeason subSeason : Season.SubSeason.VALUES)
+        {
+            ServerConfig.MeltChanceInfo meltInfo = ServerConfig.getMeltInfo(subSeason);
+
+            if (meltInfo == null)
+                continue;
+
+            float rolls = meltInfo.getRolls() * meltInfo.getMeltChance() / 100.0F;
+
+            if (budget > 0 && rolls * chunks > budget)
+            {
+                rolls = (float)budget / chunks;
+            }
+
+            result[subSeason.ordinal()] = rolls;
+        }
+
+        return result;
+    }
+
+    /**
+     * Measures the cost of the temperature check which the season hooks and melt rolls are built on, across the
+     * biomes and heights being simulated.
+     */
+    private static double measureHookNanos(List<SimulatedChunk> chunks)
+    {
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        float total = 0.0F;
+        long elapsed = 0;
+
+        // The first round warms up the JIT and is discarded
+        for (int round = 0; round < 2; round++)
+        {
+            long start = System.nanoTime();
+
+            for (int i = 0; i < CALIBRATION_CALLS; i++)
+            {
+                SimulatedChunk chunk = chunks.get(i % chunks.size());
+                int column = (i * 31) & 255;
+                pos.set(chunk.getBlockX(column), chunk.groundY[column], chunk.getBlockZ(column));
+                total += SeasonHooks.getBiomeTemperatureInSeason(Season.SubSeason.VALUES[i % Season.SubSeason.VALUES.length], chunk.biomes[column], pos);
+            }
+
+            elapsed = System.nanoTime() - start;
+        }
+
+        // Use the result so the checks can't be optimised away
+        if (Float.isNaN(total))
+            SereneSeasons.LOGGER.warn("Calibration produced an invalid temperature");
+
+        return (double)elapsed / CALIBRATION_CALLS;
+    }
+
+    private static SimulationResult simulate(List<SimulatedChunk> chunks, SeasonSchedule schedule, float[] meltRollsPerTick, boolean seasonalWeather, boolean seasonalCrops, List<CropProfile> crops, long seed, ExecutorService executor) throws InterruptedException
+    {
+        List<Callable<SimulationResult>> tasks = new ArrayList<>();
+
+        for (int from = 0; from < chunks.size(); from += CHUNKS_PER_TASK)
+        {
+            List<SimulatedChunk> taskChunks = chunks.subList(from, Math.min(from + CHUNKS_PER_TASK, chunks.size()));
+
+            tasks.add(() ->
+            {
+                SimulationResult taskResult = new SimulationResult(schedule.getDays(), crops.size());
+
+                for (SimulatedChunk chunk : taskChunks)
+                {
+                    ChunkSimulation.simulate(chunk, schedule, meltRollsPerTick, seasonalWeather, seasonalCrops, crops, seed, taskResult);
+                }
+
+                return taskResult;
+            });
+        }
+
+        SimulationResult result = new SimulationResult(schedule.getDays(), crops.size());
+
+        for (Future<SimulationResult> future : executor.invokeAll(tasks))
+        {
+            try
+            {
+                result.add(future.get());
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException("Failed to simulate chunks", e.getCause());
+            }
+        }
+
+        return result;
+    }
+
+    private static void printReport(SimulationResult result, SeasonSchedule schedule, int chunks, List<CropProfile> crops, double hookNanos, double wallSeconds, int threads)
+    {
+        System.out.printf(Locale.ROOT, "Simulated %d chunks (%d land and %d water columns) over %d days in %.2fs with %d threads%n", chunks, result.landColumns, result.waterColumns, schedule.getDays(), wallSeconds, threads);
+        System.out.printf(Locale.ROOT, "Temperature checks cost %.1fns each on this machine%n%n", hookNanos);
+
+        StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "%-13s %6s %6s %10s %10s %10s %10s %11s %11s %9s", "sub season", "snow", "ice", "snowed", "froze", "melted", "thawed", "rolls/tick", "hooks/tick", "us/tick"));
+
+        for (CropProfile crop : crops)
+        {
+            header.append(String.format(Locale.ROOT, " %9s", crop.name));
+        }
+
+        System.out.println(header);
+
+        for (Season.SubSeason subSeason : Season.SubSeason.VALUES)
+        {
+            long ticks = schedule.getSubSeasonTicks(subSeason);
+
+            if (ticks == 0)
+                continue;
+
+            int i = subSeason.ordinal();
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%-13s %5.1f%% %5.1f%% %10d %10d %10d %10d %11.1f %11.1f %9.1f",
+                subSeason.name().toLowerCase(Locale.ROOT), result.getAverageSnowCoverage(subSeason, schedule) * 100.0D, result.getAverageIceCoverage(subSeason, schedule) * 100.0D,
+                result.snowPlaced[i], result.iceFormed[i], result.snowMelted[i], result.iceMelted[i], (double)result.meltRolls[i] / ticks, (double)result.hookCalls[i] / ticks,
+                result.getEstimatedMicrosPerTick(subSeason, schedule, hookNanos)));
+
+            for (int crop = 0; crop < crops.size(); crop++)
+            {
+                line.append(String.format(Locale.ROOT, " %8.1f%%", result.getFertileFraction(crop, subSeason) * 100.0D));
+            }
+
+            System.out.println(line);
+        }
+    }
+
+    private static ExecutorService createExecutor(int threads)
+    {
+        AtomicInteger threadId = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(threads, runnable ->
+        {
+            Thread thread = new Thread(runnable, "Serene Seasons Simulator #" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class Options
+    {
+        private boolean help;
+        @Nullable private Path serverConfig;
+        @Nullable private Path seasonsConfig;
+        @Nullable private Path fertilityConfig;
+        @Nullable private Path region;
+        private int minY = -64;
+        private int height = 384;
+        private int grid = 32;
+        private final List<String> biomes = new ArrayList<>();
+        private int bandWidth = 4;
+        private int relief = 8;
+        private final List<String> crops = new ArrayList<>();
+        private int cycles = 1;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private long seed;
+        @Nullable private Path output;
+
+        private static Options parse(String[] args)
+        {
+            Options options = new Options();
+
+            for (int i = 0; i < args.length; i++)
+            {
+                String arg = args[i];
+
+                if (arg.equals("--help") || arg.equals("-h"))
+                {
+                    options.help = true;
+                    continue;
+                }
+
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException("Missing value for " + arg);
+
+                String value = args[++i];
+
+                switch (arg)
+                {
+                    case "--server-config" -> options.serverConfig = Path.of(value);
+                    case "--seasons-config" -> options.seasonsConfig = Path.of(value);
+                    case "--fertility-config" -> options.fertilityConfig = Path.of(value);
+                    case "--region" -> options.region = Path.of(value);
+                    case "--min-y" -> options.minY = parseInt(arg, value, Integer.MIN_VALUE);
+                    case "--height" -> options.height = parseInt(arg, value, 16);
+                    case "--grid" -> options.grid = parseInt(arg, value, 1);
+                    case "--biomes" -> options.biomes.addAll(List.of(value.split(",")));
+                    case "--band-width" -> options.bandWidth = parseInt(arg, value, 1);
+                    case "--relief" -> options.relief = parseInt(arg, value, 0);
+                    case "--crop" -> options.crops.add(value);
+                    case "--cycles" -> options.cycles = parseInt(arg, value, 1);
+                    case "--threads" -> options.threads = parseInt(arg, value, 1);
+                    case "--seed" -> options.seed = Long.parseLong(value);
+                    case "--output" -> options.output = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+
+            return options;
+        }
+
+        private static int parseInt(String arg, String value, int min)
+        {
+            int result;
+
+            try
+            {
+                result = Integer.parseInt(value);
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IllegalArgumentException("Invalid number " + value + " for " + arg);
+            }
+
+            if (result < min)
+                throw new IllegalArgumentException(arg + " must be at least " + min);
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import net.minecraft.core.Holder;
+import net.minecraft.world.level.biome.Biome;
+
+/**
+ * The surface of a chunk, which is all the simulation needs. Each of the 256 columns, indexed by z << 4 | x,
+ * records the height of its topmost motion blocking block, the biome there, and whether that block is land or water.
+ */
+public final class SimulatedChunk
+{
+    public static final byte LAND = 0;
+    public static final byte WATER = 1;
+
+    public static final byte BARE = 0;
+    public static final byte SNOW = 1;
+    public static final byte ICE = 2;
+
+    public final int x;
+    public final int z;
+    public final int[] groundY = new int[256];
+    @SuppressWarnings("unchecked")
+    public final Holder<Biome>[] biomes = new Holder[256];
+    public final byte[] surface = new byte[256];
+    // Whether each column starts covered in snow, or frozen over if it's water
+    public final byte[] initialCover = new byte[256];
+
+    public SimulatedChunk(int x, int z)
+    {
+        this.x = x;
+        this.z = z;
+    }
+
+    public static int getColumn(int x, int z)
+    {
+        return (z & 15) << 4 | (x & 15);
+    }
+
+    public int getBlockX(int column)
+    {
+        return (this.x << 4) + (column & 15);
+    }
+
+    public int getBlockZ(int column)
+    {
+        return (this.z << 4) + (column >> 4);
+    }
+}
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import sereneseasons.api.season.Season;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Totals gathered while simulating a group of chunks. Each worker fills in its own result, which are then merged.
+ */
+public final class SimulationResult
+{
+    private static final int SUB_SEASONS = Season.SubSeason.VALUES.length;
+
+    public long landColumns;
+    public long waterColumns;
+
+    // Indexed by sub season ordinal
+    public final long[] precipitationChecks = new long[SUB_SEASONS];
+    public final long[] hookCalls = new long[SUB_SEASONS];
+    public final long[] meltRolls = new long[SUB_SEASONS];
+    public final long[] snowPlaced = new long[SUB_SEASONS];
+    public final long[] iceFormed = new long[SUB_SEASONS];
+    public final long[] snowMelted = new long[SUB_SEASONS];
+    public final long[] iceMelted = new long[SUB_SEASONS];
+
+    // The number of columns covered at the end of each day
+    public final long[] snowCoverage;
+    public final long[] iceCoverage;
+
+    // The number of land columns each crop is fertile in, indexed by crop then sub season ordinal
+    public final long[][] fertileColumns;
+
+    public SimulationResult(int days, int crops)
+    {
+        this.snowCoverage = new long[days];
+        this.iceCoverage = new long[days];
+        this.fertileColumns = new long[crops][SUB_SEASONS];
+    }
+
+    public void add(SimulationResult other)
+    {
+        this.landColumns += other.landColumns;
+        this.waterColumns += other.waterColumns;
+        add(this.precipitationChecks, other.precipitationChecks);
+        add(this.hookCalls, other.hookCalls);
+        add(this.meltRolls, other.meltRolls);
+        add(this.snowPlaced, other.snowPlaced);
+        add(this.iceFormed, other.iceFormed);
+        add(this.snowMelted, other.snowMelted);
+        add(this.iceMelted, other.iceMelted);
+        add(this.snowCoverage, other.snowCoverage);
+        add(this.iceCoverage, other.iceCoverage);
+
+        for (int i = 0; i < this.fertileColumns.length; i++)
+        {
+            add(this.fertileColumns[i], other.fertileColumns[i]);
+        }
+    }
+
+    private static void add(long[] totals, long[] values)
+    {
+        for (int i = 0; i < totals.length; i++)
+        {
+            totals[i] += values[i];
+        }
+    }
+
+    private static double getFraction(long count, long total)
+    {
+        return total > 0 ? (double)count / total : 0.0D;
+    }
+
+    /**
+     * @param schedule the schedule the result was simulated with
+     * @param chunks the number of chunks simulated
+     * @param hookNanos the measured cost of a single temperature check, used to estimate the cost per tick
+     */
+    public JsonObject toJson(SeasonSchedule schedule, int chunks, List<CropProfile> crops, double hookNanos, double wallSeconds)
+    {
+        JsonObject json = new JsonObject();
+        json.addProperty("chunks", chunks);
+        json.addProperty("land_columns", this.landColumns);
+        json.addProperty("water_columns", this.waterColumns);
+        json.addProperty("days", schedule.getDays());
+        json.addProperty("hook_nanos", hookNanos);
+        json.addProperty("wall_seconds", wallSeconds);
+
+        JsonArray subSeasons = new JsonArray();
+
+        for (Season.SubSeason subSeason : Season.SubSeason.VALUES)
+        {
+            int i = subSeason.ordinal();
+            long ticks = schedule.getSubSeasonTicks(subSeason);
+
+            if (ticks == 0)
+                continue;
+
+            JsonObject entry = new JsonObject();
+            entry.addProperty("sub_season", subSeason.name().toLowerCase(Locale.ROOT));
+            entry.addProperty("ticks", ticks);
+            entry.addProperty("precipitation_checks", this.precipitationChecks[i]);
+            entry.addProperty("melt_rolls", this.meltRolls[i]);
+            entry.addProperty("snow_placed", this.snowPlaced[i]);
+            entry.addProperty("ice_formed", this.iceFormed[i]);
+            entry.addProperty("snow_melted", this.snowMelted[i]);
+            entry.addProperty("ice_melted", this.iceMelted[i]);
+            entry.addProperty("hook_calls_per_tick", (double)this.hookCalls[i] / ticks);
+            entry.addProperty("melt_rolls_per_tick", (double)this.meltRolls[i] / ticks);
+            entry.addProperty("estimated_micros_per_tick", this.getEstimatedMicrosPerTick(subSeason, schedule, hookNanos));
+
+            JsonObject fertility = new JsonObject();
+
+            for (int crop = 0; crop < crops.size(); crop++)
+            {
+                fertility.addProperty(crops.get(crop).name, this.getFertileFraction(crop, subSeason));
+            }
+
+            entry.add("fertile_fraction", fertility);
+            subSeasons.add(entry);
+        }
+
+        json.add("sub_seasons", subSeasons);
+
+        JsonArray snowCurve = new JsonArray();
+        JsonArray iceCurve = new JsonArray();
+
+        for (int day = 0; day < schedule.getDays(); day++)
+        {
+            snowCurve.add(getFraction(this.snowCoverage[day], this.landColumns));
+            iceCurve.add(getFraction(this.iceCoverage[day], this.waterColumns));
+        }
+
+        json.add("snow_coverage", snowCurve);
+        json.add("ice_coverage", iceCurve);
+        return json;
+    }
+
+    /**
+     * Estimates the time spent in the season hooks and melting per tick, assuming each call costs about as much as
+     * the temperature check it is built on. The cost of reading and changing blocks in a real level isn't included.
+     */
+    public double getEstimatedMicrosPerTick(Season.SubSeason subSeason, SeasonSchedule schedule, double hookNanos)
+    {
+        long ticks = schedule.getSubSeasonTicks(subSeason);
+        int i = subSeason.ordinal();
+        return ticks > 0 ? (this.hookCalls[i] + this.meltRolls[i]) * hookNanos / ticks / 1000.0D : 0.0D;
+    }
+
+    public double getFertileFraction(int crop, Season.SubSeason subSeason)
+    {
+        return getFraction(this.fertileColumns[crop][subSeason.ordinal()], this.landColumns);
+    }
+
+    /**
+     * Gets the fraction of land columns covered in snow, averaged over the days in the given sub season.
+     */
+    public double getAverageSnowCoverage(Season.SubSeason subSeason, SeasonSchedule schedule)
+    {
+        return this.getAverageCoverage(this.snowCoverage, this.landColumns, subSeason, schedule);
+    }
+
+    public double getAverageIceCoverage(Season.SubSeason subSeason, SeasonSchedule schedule)
+    {
+        return this.getAverageCoverage(this.iceCoverage, this.waterColumns, subSeason, schedule);
+    }
+
+    private double getAverageCoverage(long[] coverage, long columns, Season.SubSeason subSeason, SeasonSchedule schedule)
+    {
+        double total = 0.0D;
+        int days = 0;
+
+        for (int slice = 0; slice < schedule.getSliceCount(); slice++)
+        {
+            if (schedule.endsDay(slice) && schedule.getSubSeason(slice) == subSeason.ordinal())
+            {
+                total += getFraction(coverage[schedule.getDay(slice)], columns);
+                days++;
+            }
+        }
+
+        return days > 0 ? total / days : 0.0D;
+    }
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.Lifecycle;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.registries.VanillaRegistries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraftforge.common.ForgeConfigSpec;
+import sereneseasons.config.FertilityConfig;
+import sereneseasons.config.SeasonsConfig;
+import sereneseasons.config.ServerConfig;
+import sereneseasons.core.SereneSeasons;
+import sereneseasons.init.ModTags;
+import sereneseasons.season.BiomeSeasonTable;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepares just enough of the game for the simulator to run outside of it. Configs are loaded from the given files
+ * or take their default values, and the vanilla biomes are registered along with the mod's biome tags.
+ */
+public final class SimulatorSetup
+{
+    private static final List<TagKey<Biome>> BIOME_TAGS = List.of(ModTags.Biomes.BLACKLISTED_BIOMES, ModTags.Biomes.INFERTILE_BIOMES, ModTags.Biomes.LESSER_COLOR_CHANGE_BIOMES, ModTags.Biomes.TROPICAL_BIOMES);
+
+    private final MappedRegistry<Biome> biomes;
+
+    private SimulatorSetup(MappedRegistry<Biome> biomes)
+    {
+        this.biomes = biomes;
+    }
+
+    /**
+     * @param serverConfig the world's sereneseasons-server.toml, or null to use the defaults
+     * @param seasonsConfig sereneseasons/seasons.toml, or null to use the defaults
+     * @param fertilityConfig sereneseasons/fertility.toml, or null to use the defaults
+     */
+    public static SimulatorSetup init(@Nullable Path serverConfig, @Nullable Path seasonsConfig, @Nullable Path fertilityConfig) throws IOException
+    {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        loadConfig(ServerConfig.SPEC, serverConfig);
+        loadConfig(SeasonsConfig.SPEC, seasonsConfig);
+        loadConfig(FertilityConfig.SPEC, fertilityConfig);
+        ServerConfig.onConfigChanged();
+
+        MappedRegistry<Biome> biomes = createBiomes();
+
+        // Look the biomes up through the season table, as they would be in game
+        BiomeSeasonTable.rebuild(new RegistryAccess.ImmutableRegistryAccess(List.of(biomes)), false);
+        return new SimulatorSetup(biomes);
+    }
+
+    /**
+     * Gets a biome by name, such as minecraft:plains, or null if there is no such biome.
+     */
+    @Nullable
+    public Holder<Biome> getBiome(String name)
+    {
+        ResourceLocation location = ResourceLocation.tryParse(name);
+
+        if (location == null)
+            return null;
+
+        return this.biomes.getHolder(ResourceKey.create(Registries.BIOME, location)).orElse(null);
+    }
+
+    public Holder<Biome> getDefaultBiome()
+    {
+        return this.biomes.getHolderOrThrow(Biomes.PLAINS);
+    }
+
+    private static void loadConfig(ForgeConfigSpec spec, @Nullable Path path) throws IOException
+    {
+        CommentedConfig config;
+
+        if (path != null)
+        {
+            if (!Files.isRegularFile(path))
+                throw new IOException("Config file " + path + " doesn't exist");
+
+            CommentedFileConfig fileConfig = CommentedFileConfig.builder(path).build();
+            fileConfig.load();
+            config = fileConfig;
+        }
+        else
+        {
+            config = CommentedConfig.inMemory();
+        }
+
+        // Missing or invalid values take their defaults, as they would in game. The file itself is left untouched.
+        if (!spec.isCorrect(config))
+        {
+            spec.correct(config);
+        }
+
+        spec.acceptConfig(config);
+    }
+
+    private static MappedRegistry<Biome> createBiomes() throws IOException
+    {
+        HolderLookup.RegistryLookup<Biome> vanillaBiomes = VanillaRegistries.createLookup().lookupOrThrow(Registries.BIOME);
+        MappedRegistry<Biome> registry = new MappedRegistry<>(Registries.BIOME, Lifecycle.stable());
+
+        vanillaBiomes.listElements().forEach(biome -> registry.register(biome.key(), biome.value(), Lifecycle.stable()));
+
+        Map<TagKey<Biome>, List<Holder<Biome>>> tags = new HashMap<>();
+
+        for (TagKey<Biome> tag : BIOME_TAGS)
+        {
+            tags.put(tag, readTag(registry, tag));
+        }
+
+        registry.bindTags(tags);
+        registry.freeze();
+        return registry;
+    }
+
+    /**
+     * Reads the biomes in one of the mod's tags from its bundled data. References to other tags aren't supported.
+     */
+    private static List<Holder<Biome>> readTag(MappedRegistry<Biome> registry, TagKey<Biome> tag) throws IOException
+    {
+        ResourceLocation location = tag.location();
+        String resource = "/data/" + location.getNamespace() + "/tags/worldgen/biome/" + location.getPath() + ".json";
+        List<Holder<Biome>> result = new ArrayList<>();
+
+        try (InputStream stream = SimulatorSetup.class.getResourceAsStream(resource))
+        {
+            if (stream == null)
+                throw new IOException("Missing biome tag " + resource);
+
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8))
+            {
+                JsonArray values = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonArray("values");
+
+                for (JsonElement value : values)
+                {
+                    String name = value.isJsonObject() ? value.getAsJsonObject().get("id").getAsString() : value.getAsString();
+
+                    if (name.startsWith("#"))
+                    {
+                        SereneSeasons.LOGGER.warn("Ignoring tag reference {} in {}", name, location);
+                        continue;
+                    }
+
+                    registry.getHolder(ResourceKey.create(Registries.BIOME, new ResourceLocation(name))).ifPresent(result::add);
+                }
+            }
+        }
+
+        return result;
+    }
+}
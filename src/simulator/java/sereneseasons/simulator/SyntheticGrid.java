@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.simulator;
+
+import net.minecraft.core.Holder;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.biome.Biome;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates a square of chunks centred on the origin. The given biomes are laid out in bands running east to west,
+ * over gently rolling terrain whose hollows below sea level are filled with water.
+ */
+public final class SyntheticGrid
+{
+    private static final int SEA_LEVEL = 63;
+    private static final int BASE_HEIGHT = 66;
+
+    private SyntheticGrid() {}
+
+    /**
+     * @param size the number of chunks along each side
+     * @param biomes the biomes to use, in the order their bands appear from north to south
+     * @param bandWidth the width of each biome band in chunks
+     * @param relief how far the terrain rises and falls around its base height
+     */
+    public static List<SimulatedChunk> create(int size, List<Holder<Biome>> biomes, int bandWidth, int relief)
+    {
+        List<SimulatedChunk> chunks = new ArrayList<>(size * size);
+        int min = -(size / 2);
+
+        for (int chunkZ = min; chunkZ < min + size; chunkZ++)
+        {
+            Holder<Biome> biome = biomes.get(Math.floorMod(Math.floorDiv(chunkZ - min, bandWidth), biomes.size()));
+
+            for (int chunkX = min; chunkX < min + size; chunkX++)
+            {
+                SimulatedChunk chunk = new SimulatedChunk(chunkX, chunkZ);
+
+                for (int column = 0; column < 256; column++)
+                {
+                    int x = chunk.getBlockX(column);
+                    int z = chunk.getBlockZ(column);
+                    int height = BASE_HEIGHT + Mth.floor(relief * Mth.sin(x / 41.0F) * Mth.cos(z / 53.0F));
+
+                    chunk.biomes[column] = biome;
+
+                    if (height < SEA_LEVEL)
+                    {
+                        chunk.groundY[column] = SEA_LEVEL - 1;
+                        chunk.surface[column] = SimulatedChunk.WATER;
+                    }
+                    else
+                    {
+                        chunk.groundY[column] = height;
+                        chunk.surface[column] = SimulatedChunk.LAND;
+                    }
+                }
+
+                chunks.add(chunk);
+            }
+        }
+
+        return chunks;
+    }
+}
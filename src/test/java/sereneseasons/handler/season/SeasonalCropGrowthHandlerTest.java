@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.handler.season;
+
+import com.sun.management.ThreadMXBean;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraftforge.event.level.BlockEvent;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import sereneseasons.api.season.Season;
+import sereneseasons.benchmark.BenchmarkSetup;
+import sereneseasons.benchmark.StandInLevel;
+import sereneseasons.util.SeasonMetrics;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class SeasonalCropGrowthHandlerTest
+{
+    // Enough calls for every lazily built index and cache on the path to be in place before measuring
+    private static final int WARMUP_CALLS = 10000;
+    private static final int MEASURED_CALLS = 10000;
+
+    @BeforeAll
+    public static void setup()
+    {
+        BenchmarkSetup.init();
+        SeasonMetrics.setEnabled(false);
+    }
+
+    @Test
+    public void cropGrowthDoesNotAllocate()
+    {
+        ThreadMXBean threads = (ThreadMXBean)ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        for (String biomeKind : new String[] { "temperate", "cold", "tropical", "blacklisted" })
+        {
+            StandInLevel level = BenchmarkSetup.createLevel(biomeKind);
+            level.addChunk(0, 0);
+
+            // Wheat is only fertile in summer and autumn, so both fertile and denied growth are covered
+            BlockEvent.CropGrowEvent.Pre event = new BlockEvent.CropGrowEvent.Pre(level, new BlockPos(8, 64, 8), Blocks.WHEAT.defaultBlockState());
+
+            for (Season season : Season.values())
+            {
+                BenchmarkSetup.setSeasonState(BenchmarkSetup.getSeasonState(season));
+
+                for (int i = 0; i < WARMUP_CALLS; i++)
+                {
+                    SeasonalCropGrowthHandler.onCropGrowth(event);
+                }
+
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+
+                for (int i = 0; i < MEASURED_CALLS; i++)
+                {
+                    SeasonalCropGrowthHandler.onCropGrowth(event);
+                }
+
+                long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                assertEquals(0L, allocated, "Bytes allocated handling crop growth in " + season + " in a " + biomeKind + " biome");
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright 2021, the Glitchfiend Team.
+ * All rights reserved.
+ ******************************************************************************/
+package sereneseasons.season;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.block.Blocks;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MeltIndexTest
+{
+    private static final int SEA_LEVEL = 62;
+
+    @BeforeAll
+    public static void bootstrap()
+    {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @Test
+    public void freezingAndMeltingWater()
+    {
+        MeltIndex index = new MeltIndex();
+        int column = MeltIndex.getColumn(3, 7);
+
+        // Ice frozen from water may sit below the reported surface height
+        index.onBlockChanged(column, SEA_LEVEL, SEA_LEVEL + 1, Blocks.ICE.defaultBlockState());
+        assertTrue(index.mayMelt(column));
+
+        // Melting leaves the column marked until a melt roll finds nothing there and clears it
+        index.onBlockChanged(column, SEA_LEVEL, SEA_LEVEL + 1, Blocks.WATER.defaultBlockState());
+        assertTrue(index.mayMelt(column));
+        index.clear(column);
+        assertTrue(index.isEmpty());
+
+        // Refreezing must mark the column again
+        index.onBlockChanged(column, SEA_LEVEL, SEA_LEVEL + 1, Blocks.ICE.defaultBlockState());
+        assertTrue(index.mayMelt(column));
+        assertFalse(index.isEmpty());
+    }
+
+    @Test
+    public void snowMarksColumn()
+    {
+        MeltIndex index = new MeltIndex();
+        int column = MeltIndex.getColumn(15, 15);
+
+        index.onBlockChanged(column, SEA_LEVEL + 1, SEA_LEVEL, Blocks.SNOW.defaultBlockState());
+        assertTrue(index.mayMelt(column));
+    }
+
+    @Test
+    public void changesBelowSurfaceAreIgnored()
+    {
+        MeltIndex index = new MeltIndex();
+        int column = MeltIndex.getColumn(0, 0);
+
+        index.onBlockChanged(column, SEA_LEVEL - 10, SEA_LEVEL, Blocks.STONE.defaultBlockState());
+        assertFalse(index.mayMelt(column));
+        assertTrue(index.isEmpty());
+    }
+
+    @Test
+    public void clearingSurfaceMarksColumn()
+    {
+        MeltIndex index = new MeltIndex();
+        int column = MeltIndex.getColumn(8, 4);
+
+        // Removing a block above the surface may expose snow or ice beneath it
+        index.onBlockChanged(column, SEA_LEVEL + 1, SEA_LEVEL, Blocks.AIR.defaultBlockState());
+        assertTrue(index.mayMelt(column));
+    }
+}